@@ -1,8 +1,8 @@
 package com.config;
 
+import com.db.ConnectionPoolWarmer;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
-import io.github.cdimascio.dotenv.Dotenv;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,39 +11,161 @@ import javax.sql.DataSource;
 
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-    private static final Dotenv dotenv = Dotenv.load();
-    private static HikariDataSource dataSource;
 
-    static {
-        initDataSource();
-    }
+    // Number of parallel Karate workers; runners pass the same value to Runner.parallel()
+    public static final String KARATE_THREADS_PROPERTY = "karate.threads";
+    private static final int DEFAULT_KARATE_THREADS = 5;
+    // Extra connections beyond one per worker, for hooks and cleanup running alongside scenarios
+    private static final int DEFAULT_POOL_HEADROOM = 2;
+
+    // Created on first use and closed once at the end of the suite, never per scenario
+    private static final SharedResource<HikariDataSource> dataSource = SuiteLifecycle.register(
+            new SharedResource<>("database connection pool", DatabaseConfig::initDataSource, DatabaseConfig::shutdown));
+
+    // DB_WORKER_ISOLATION=schema gives every running scenario one of karate.threads schemas cloned
+    // from DB_TEMPLATE_SCHEMA; it uses the main pool, so it closes (and drops its schemas) first
+    private static final boolean workerIsolation = "schema".equalsIgnoreCase(EnvProfile.get("DB_WORKER_ISOLATION"));
+    private static final SharedResource<WorkerSchemaDataSource> workerDataSource = SuiteLifecycle.register(
+            new SharedResource<>("worker schema router", DatabaseConfig::initWorkerDataSource, WorkerSchemaDataSource::close)
+                    .dependsOn(dataSource));
 
-    private static void initDataSource() {
+    private static HikariDataSource initDataSource() {
         try {
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(dotenv.get("DB_URL"));
-            config.setUsername(dotenv.get("DB_USERNAME"));
-            config.setPassword(dotenv.get("DB_PASSWORD"));
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(5);
-            config.setIdleTimeout(300000);
-            config.setConnectionTimeout(20000);
-            
-            dataSource = new HikariDataSource(config);
-            logger.info("Database connection pool initialized");
+            HikariConfig config = buildConfig();
+            HikariDataSource pool = new HikariDataSource(config);
+            logger.info("Database connection pool initialized (profile: {}, maximumPoolSize: {}, minimumIdle: {})",
+                    EnvProfile.activeProfile(), config.getMaximumPoolSize(), config.getMinimumIdle());
+            return pool;
         } catch (Exception e) {
             logger.error("Failed to initialize database connection pool", e);
             throw new RuntimeException("Database initialization failed", e);
         }
     }
 
+    private static WorkerSchemaDataSource initWorkerDataSource() {
+        return new WorkerSchemaDataSource(dataSource.get(), DatabaseConfig::buildWorkerConfig,
+                EnvProfile.get("DB_TEMPLATE_SCHEMA", "public"),
+                EnvProfile.get("DB_WORKER_SCHEMA_PREFIX", "karate_worker"),
+                Boolean.parseBoolean(EnvProfile.get("DB_WORKER_SCHEMA_KEEP", "false")),
+                karateThreads(), DatabaseConfig::warmWorkerPool);
+    }
+
+    // Each worker pool is warmed as it is provisioned, so isolated scenarios start on warm connections too
+    private static void warmWorkerPool(HikariDataSource pool) {
+        ConnectionPoolWarmer.warmUp(pool, pool.getMaximumPoolSize(), ConnectionPoolWarmer.hotQueryKeys());
+    }
+
+    // A worker only runs one scenario at a time, so its pool stays small
+    private static HikariConfig buildWorkerConfig(String schema) {
+        HikariConfig config = buildConfig();
+        config.setPoolName("worker-" + schema);
+        config.setMaximumPoolSize(EnvProfile.getInt("DB_WORKER_POOL_SIZE", 2));
+        config.setMinimumIdle(1);
+        config.setConnectionInitSql("SET search_path TO " + schema + ", public");
+        return config;
+    }
+
+    private static HikariConfig buildConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(EnvProfile.get("DB_URL"));
+        config.setUsername(EnvProfile.get("DB_USERNAME"));
+        config.setPassword(EnvProfile.get("DB_PASSWORD"));
+
+        // Pool size follows the Karate worker count unless pinned explicitly
+        int threads = karateThreads();
+        int maxPoolSize = EnvProfile.getInt("DB_POOL_MAX_SIZE",
+                threads + EnvProfile.getInt("DB_POOL_HEADROOM", DEFAULT_POOL_HEADROOM));
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(EnvProfile.getInt("DB_POOL_MIN_IDLE", threads), maxPoolSize));
+
+        config.setConnectionTimeout(EnvProfile.getLong("DB_POOL_CONNECTION_TIMEOUT_MS", 20000));
+        config.setIdleTimeout(EnvProfile.getLong("DB_POOL_IDLE_TIMEOUT_MS", 300000));
+        config.setMaxLifetime(EnvProfile.getLong("DB_POOL_MAX_LIFETIME_MS", 1800000));
+        config.setValidationTimeout(EnvProfile.getLong("DB_POOL_VALIDATION_TIMEOUT_MS", 5000));
+        config.setLeakDetectionThreshold(EnvProfile.getLong("DB_POOL_LEAK_DETECTION_MS", 0));
+
+        // PostgreSQL driver tuning: server-side prepare after N executions, rows fetched per round trip
+        config.addDataSourceProperty("prepareThreshold", EnvProfile.get("DB_PREPARE_THRESHOLD", "5"));
+        String fetchSize = EnvProfile.get("DB_FETCH_SIZE");
+        if (fetchSize != null) {
+            config.addDataSourceProperty("defaultRowFetchSize", fetchSize);
+        }
+        // Any other driver property as "name=value;name=value"
+        String driverProperties = EnvProfile.get("DB_DRIVER_PROPERTIES");
+        if (driverProperties != null) {
+            for (String property : driverProperties.split(";")) {
+                String[] pair = property.split("=", 2);
+                if (pair.length == 2 && !pair[0].isBlank()) {
+                    config.addDataSourceProperty(pair[0].trim(), pair[1].trim());
+                }
+            }
+        }
+
+        config.setMetricsTrackerFactory(PoolWaitTracker::create);
+        return config;
+    }
+
+    public static int karateThreads() {
+        return Integer.getInteger(KARATE_THREADS_PROPERTY, DEFAULT_KARATE_THREADS);
+    }
+
+    public static boolean isWorkerIsolation() {
+        return workerIsolation;
+    }
+
+    // Binds a worker schema to the calling scenario; pair with releaseWorkerSchema() when it ends
+    public static void leaseWorkerSchema() {
+        if (workerIsolation) {
+            workerDataSource.get().lease();
+        }
+    }
+
+    public static void releaseWorkerSchema() {
+        WorkerSchemaDataSource router = workerDataSource.getIfInitialized();
+        if (router != null) {
+            router.release();
+        }
+    }
+
+    // Provisions and warms every worker schema before the first scenario needs one
+    public static void provisionWorkerSchemas() {
+        if (workerIsolation) {
+            workerDataSource.get().provisionAll();
+        }
+    }
+
+    // The pool scenarios should use: the calling scenario's schema when worker isolation is on.
+    // Look it up per use; after closeDataSource() the next call opens a fresh pool.
     public static DataSource getDataSource() {
-        return dataSource;
+        return workerIsolation ? workerDataSource.get() : dataSource.get();
+    }
+
+    // Schema the calling scenario is routed to, or "" when all workers share one schema
+    public static String currentWorkerSchema() {
+        return workerIsolation ? workerDataSource.get().currentSchema() : "";
+    }
+
+    // The shared main pool, regardless of worker isolation
+    public static DataSource getPrimaryDataSource() {
+        return dataSource.get();
     }
 
+    // Statistics of the main pool only; worker pools log their own when they close
+    public static PoolStatistics getPoolStatistics() {
+        HikariDataSource pool = dataSource.getIfInitialized();
+        return pool != null ? PoolWaitTracker.statistics(pool) : new PoolStatistics(0, 0, 0, 0, 0, 0.0, 0.0, 0);
+    }
+
+    // Closes the suite-wide pools; a later getDataSource() would create fresh ones
     public static void closeDataSource() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
+        workerDataSource.close();
+        dataSource.close();
+    }
+
+    private static void shutdown(HikariDataSource pool) {
+        if (!pool.isClosed()) {
+            logger.info("Database connection pool statistics: {}", PoolWaitTracker.statistics(pool));
+            pool.close();
             logger.info("Database connection pool closed");
         }
     }
@@ -0,0 +1,47 @@
+package com.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * Environment lookup with per karate.env profiles. A value in the profile file (.env.e2e when
+ * karate.env=e2e) overrides the same key in .env; real environment variables override both.
+ */
+public class EnvProfile {
+    private static final String ACTIVE_PROFILE = System.getProperty("karate.env");
+
+    private static final Dotenv base = Dotenv.configure()
+            .ignoreIfMissing()
+            .load();
+
+    private static final Dotenv profile = ACTIVE_PROFILE == null ? null : Dotenv.configure()
+            .filename(".env." + ACTIVE_PROFILE)
+            .ignoreIfMissing()
+            .load();
+
+    public static String activeProfile() {
+        return ACTIVE_PROFILE != null ? ACTIVE_PROFILE : "default";
+    }
+
+    public static String get(String name) {
+        String value = profile != null ? profile.get(name) : null;
+        if (value == null || value.trim().isEmpty()) {
+            value = base.get(name);
+        }
+        return (value != null && !value.trim().isEmpty()) ? value.trim() : null;
+    }
+
+    public static String get(String name, String defaultValue) {
+        String value = get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+}
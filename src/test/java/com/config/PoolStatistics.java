@@ -0,0 +1,11 @@
+package com.config;
+
+public record PoolStatistics(int activeConnections,
+                             int idleConnections,
+                             int totalConnections,
+                             int threadsAwaitingConnection,
+                             long acquisitions,
+                             double averageWaitMillis,
+                             double maxWaitMillis,
+                             long timeouts) {
+}
@@ -0,0 +1,73 @@
+package com.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics hook recording how long callers wait to borrow a connection. Every pool gets its
+ * own tracker, looked up by pool name, so statistics never mix the main pool with worker pools.
+ */
+public class PoolWaitTracker implements IMetricsTracker {
+    private static final Map<String, PoolWaitTracker> trackers = new ConcurrentHashMap<>();
+
+    private final String poolName;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    private PoolWaitTracker(String poolName) {
+        this.poolName = poolName;
+    }
+
+    // MetricsTrackerFactory for HikariConfig; a pool started again under the same name starts from zero
+    public static PoolWaitTracker create(String poolName, PoolStats poolStats) {
+        PoolWaitTracker tracker = new PoolWaitTracker(poolName);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    // Statistics of one pool; read them before closing it, as the tracker goes with the pool
+    public static PoolStatistics statistics(HikariDataSource pool) {
+        PoolWaitTracker tracker = trackers.get(pool.getPoolName());
+        return (tracker != null ? tracker : new PoolWaitTracker(pool.getPoolName())).snapshot(pool.getHikariPoolMXBean());
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        totalWaitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public void close() {
+        trackers.remove(poolName, this);
+    }
+
+    public PoolStatistics snapshot(HikariPoolMXBean pool) {
+        long count = acquisitions.sum();
+        double averageWaitMillis = count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000;
+        return new PoolStatistics(
+                pool != null ? pool.getActiveConnections() : 0,
+                pool != null ? pool.getIdleConnections() : 0,
+                pool != null ? pool.getTotalConnections() : 0,
+                pool != null ? pool.getThreadsAwaitingConnection() : 0,
+                count,
+                averageWaitMillis,
+                maxWaitNanos.get() / 1_000_000.0,
+                timeouts.sum());
+    }
+}
@@ -0,0 +1,24 @@
+package com.config;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class QueryCacheConfig {
+    private static final String DEFAULT_TTL_MS = "60000";
+    private static final String DEFAULT_MAX_ENTRIES = "1000";
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    // The cache is opt-in: DB_QUERY_CACHE_ENABLED=true turns it on
+    public static QueryCacheConfig load() {
+        return QueryCacheConfig.builder()
+                .enabled(Boolean.parseBoolean(EnvProfile.get("DB_QUERY_CACHE_ENABLED", "false")))
+                .ttlMillis(Long.parseLong(EnvProfile.get("DB_QUERY_CACHE_TTL_MS", DEFAULT_TTL_MS)))
+                .maxEntries(Integer.parseInt(EnvProfile.get("DB_QUERY_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES)))
+                .build();
+    }
+}
@@ -12,4 +12,56 @@ public class SftpConfig {
     private final String ppkFilePath;
     private final String remoteBasePath;
     private final int timeout;
+
+    // Engine registered under META-INF/services/com.transfer.SftpEngine ("jsch" or "mina")
+    @Builder.Default
+    private final String engine = "jsch";
+    // Times an operation is retried on a fresh channel after its channel dropped
+    @Builder.Default
+    private final int retryAttempts = 1;
+    // Bytes per read/write request on engines that pipeline requests (MINA)
+    @Builder.Default
+    private final int transferBufferSize = 65536;
+    // Write requests MINA may have in flight; the channel window is sized to hold all of them
+    @Builder.Default
+    private final int maxPendingWrites = 32;
+
+    // Channel pool: one authenticated session + SFTP channel per pooled entry
+    @Builder.Default
+    private final int poolMaxSize = 5;
+    @Builder.Default
+    private final int poolMinIdle = 1;
+    @Builder.Default
+    private final long poolBorrowTimeoutMillis = 30000;
+    @Builder.Default
+    private final long poolIdleTimeoutMillis = 300000;
+    @Builder.Default
+    private final long poolValidateAfterMillis = 30000;
+
+    // SSH-level zlib on every session, and gzip-wrapped file payloads (stored as "<name>.gz")
+    @Builder.Default
+    private final boolean sshCompression = false;
+    @Builder.Default
+    private final boolean gzipPayloads = false;
+    @Builder.Default
+    private final int compressionLevel = 6;
+
+    // Off unless enabled: listings reused while the directory mtime is unchanged, refreshed after maxAge regardless
+    @Builder.Default
+    private final boolean listCacheEnabled = false;
+    @Builder.Default
+    private final long listCacheMaxAgeMillis = 60000;
+
+    // Bytes per second across all transfers / per transfer (0 = unlimited); files up to smallFileBytes
+    // are interactive: they go ahead of bulk transfers for global bandwidth and always find a free channel
+    @Builder.Default
+    private final long bandwidthLimit = 0;
+    @Builder.Default
+    private final long transferBandwidthLimit = 0;
+    @Builder.Default
+    private final long smallFileBytes = 1048576;
+
+    // Record every uploaded file so the suite can delete them in one sweep at the end
+    @Builder.Default
+    private final boolean trackCreatedFiles = false;
 }
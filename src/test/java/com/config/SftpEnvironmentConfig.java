@@ -1,6 +1,7 @@
 package com.config;
 
-import io.github.cdimascio.dotenv.Dotenv;
+import com.transfer.LocalSftpServer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,20 +10,63 @@ public class SftpEnvironmentConfig {
     
     private static final String DEFAULT_PORT = "22";
     private static final String DEFAULT_TIMEOUT = "30000";
-    
-    private static final Dotenv dotenv = Dotenv.configure()
-            .ignoreIfMissing()
-            .load();
+    private static final String DEFAULT_POOL_MIN_IDLE = "1";
+    private static final String DEFAULT_POOL_BORROW_TIMEOUT = "30000";
+    private static final String DEFAULT_POOL_IDLE_TIMEOUT = "300000";
+    private static final String DEFAULT_POOL_VALIDATE_AFTER = "30000";
+    private static final String DEFAULT_COMPRESSION_LEVEL = "6";
+    private static final String DEFAULT_LIST_CACHE_MAX_AGE = "60000";
+    private static final String DEFAULT_RETRY_ATTEMPTS = "1";
+    private static final String DEFAULT_TRANSFER_BUFFER_SIZE = "65536";
+    private static final String DEFAULT_MAX_PENDING_WRITES = "32";
+    private static final String DEFAULT_SMALL_FILE_BYTES = "1048576";
     
     public static SftpConfig loadConfig() {
+        return load(false);
+    }
+
+    /**
+     * Settings for the SFTP step definitions, as the former com.file stack read them: the REMOTE_*
+     * keys win over SFTP_*, the MINA engine is used and no base path is required, since those steps
+     * take remote paths as given.
+     */
+    public static SftpConfig loadStepDefinitionConfig() {
+        return load(true);
+    }
+
+    private static SftpConfig load(boolean remoteKeysFirst) {
         try {
-            String hostname = getRequiredProperty("SFTP_HOSTNAME");
-            String username = getRequiredProperty("SFTP_USERNAME");
-            String ppkFilePath = getRequiredProperty("SFTP_PPK_FILE_PATH");
-            String remoteBasePath = getRequiredProperty("SFTP_REMOTE_BASE_PATH");
+            String hostname;
+            String username;
+            String ppkFilePath;
+            String remoteBasePath;
+            int port;
+            if (LocalSftpServer.isEnabled()) {
+                // Embedded server for the "local" profile; only the connection details are overridden
+                LocalSftpServer server = LocalSftpServer.get();
+                hostname = server.getHostname();
+                port = server.getPort();
+                username = server.getUsername();
+                ppkFilePath = server.getPrivateKeyPath();
+                remoteBasePath = LocalSftpServer.BASE_PATH;
+            } else {
+                // The REMOTE_* keys of the former MINA stack are honoured when the SFTP_* key is unset,
+                // and take precedence for the step definitions
+                hostname = getRequiredProperty("SFTP_HOSTNAME", "REMOTE_HOSTNAME", remoteKeysFirst);
+                username = getRequiredProperty("SFTP_USERNAME", "REMOTE_USERNAME", remoteKeysFirst);
+                ppkFilePath = getRequiredProperty("SFTP_PPK_FILE_PATH", "PRIVATE_KEY_FILE_PATH", remoteKeysFirst);
+                remoteBasePath = remoteKeysFirst
+                        ? getPropertyWithDefault("SFTP_REMOTE_BASE_PATH", "")
+                        : getRequiredProperty("SFTP_REMOTE_BASE_PATH", null);
+                port = Integer.parseInt(getPropertyWithDefault("SFTP_PORT", "REMOTE_PORT", remoteKeysFirst,
+                        DEFAULT_PORT));
+            }
             
-            int port = Integer.parseInt(getPropertyWithDefault("SFTP_PORT", DEFAULT_PORT));
-            int timeout = Integer.parseInt(getPropertyWithDefault("SFTP_TIMEOUT", DEFAULT_TIMEOUT));
+            int timeout = Integer.parseInt(getPropertyWithDefault("SFTP_TIMEOUT", "REMOTE_TIMEOUT", remoteKeysFirst,
+                    DEFAULT_TIMEOUT));
+            // Pool defaults to one channel per parallel Karate worker
+            int poolMaxSize = Integer.parseInt(getPropertyWithDefault("SFTP_POOL_MAX_SIZE",
+                    String.valueOf(DatabaseConfig.karateThreads())));
             
             return SftpConfig.builder()
                     .hostname(hostname)
@@ -31,6 +75,35 @@ public class SftpEnvironmentConfig {
                     .ppkFilePath(ppkFilePath)
                     .remoteBasePath(remoteBasePath)
                     .timeout(timeout)
+                    .engine(remoteKeysFirst ? "mina" : getPropertyWithDefault("SFTP_ENGINE", "jsch"))
+                    .retryAttempts(Integer.parseInt(
+                            getPropertyWithDefault("SFTP_RETRY_ATTEMPTS", DEFAULT_RETRY_ATTEMPTS)))
+                    .transferBufferSize(Integer.parseInt(getPropertyWithDefault("SFTP_TRANSFER_BUFFER_SIZE",
+                            "REMOTE_TRANSFER_BUFFER_SIZE", remoteKeysFirst, DEFAULT_TRANSFER_BUFFER_SIZE)))
+                    .maxPendingWrites(Integer.parseInt(getPropertyWithDefault("SFTP_MAX_PENDING_WRITES",
+                            "REMOTE_MAX_PENDING_WRITES", remoteKeysFirst, DEFAULT_MAX_PENDING_WRITES)))
+                    .poolMaxSize(poolMaxSize)
+                    .poolMinIdle(Integer.parseInt(getPropertyWithDefault("SFTP_POOL_MIN_IDLE", DEFAULT_POOL_MIN_IDLE)))
+                    .poolBorrowTimeoutMillis(Long.parseLong(
+                            getPropertyWithDefault("SFTP_POOL_BORROW_TIMEOUT_MS", DEFAULT_POOL_BORROW_TIMEOUT)))
+                    .poolIdleTimeoutMillis(Long.parseLong(
+                            getPropertyWithDefault("SFTP_POOL_IDLE_TIMEOUT_MS", DEFAULT_POOL_IDLE_TIMEOUT)))
+                    .poolValidateAfterMillis(Long.parseLong(
+                            getPropertyWithDefault("SFTP_POOL_VALIDATE_AFTER_MS", DEFAULT_POOL_VALIDATE_AFTER)))
+                    .sshCompression(Boolean.parseBoolean(getPropertyWithDefault("SFTP_COMPRESSION",
+                            "REMOTE_COMPRESSION", remoteKeysFirst, "false")))
+                    .gzipPayloads("gzip".equalsIgnoreCase(getPropertyWithDefault("SFTP_PAYLOAD_COMPRESSION", "none")))
+                    .compressionLevel(Integer.parseInt(
+                            getPropertyWithDefault("SFTP_COMPRESSION_LEVEL", DEFAULT_COMPRESSION_LEVEL)))
+                    .listCacheEnabled(Boolean.parseBoolean(getPropertyWithDefault("SFTP_LIST_CACHE", "false")))
+                    .listCacheMaxAgeMillis(Long.parseLong(
+                            getPropertyWithDefault("SFTP_LIST_CACHE_MAX_AGE_MS", DEFAULT_LIST_CACHE_MAX_AGE)))
+                    .bandwidthLimit(Long.parseLong(getPropertyWithDefault("SFTP_BANDWIDTH_LIMIT", "0")))
+                    .transferBandwidthLimit(Long.parseLong(
+                            getPropertyWithDefault("SFTP_TRANSFER_BANDWIDTH_LIMIT", "0")))
+                    .smallFileBytes(Long.parseLong(
+                            getPropertyWithDefault("SFTP_PRIORITY_MAX_BYTES", DEFAULT_SMALL_FILE_BYTES)))
+                    .trackCreatedFiles("suite".equalsIgnoreCase(getPropertyWithDefault("SFTP_CLEANUP", "scenario")))
                     .build();
         } catch (Exception e) {
             logger.error("Failed to load SFTP configuration from .env file", e);
@@ -38,16 +111,30 @@ public class SftpEnvironmentConfig {
         }
     }
     
-    private static String getRequiredProperty(String name) {
-        String value = dotenv.get(name);
-        if (value == null || value.trim().isEmpty()) {
+    // An SFTP_* key and the REMOTE_* key of the former stack; whichever comes first wins when both are set
+    private static String getRequiredProperty(String sftpKey, String remoteKey, boolean remoteKeysFirst) {
+        return remoteKeysFirst ? getRequiredProperty(remoteKey, sftpKey) : getRequiredProperty(sftpKey, remoteKey);
+    }
+
+    private static String getPropertyWithDefault(String sftpKey, String remoteKey, boolean remoteKeysFirst,
+                                                 String defaultValue) {
+        String first = remoteKeysFirst ? remoteKey : sftpKey;
+        String second = remoteKeysFirst ? sftpKey : remoteKey;
+        return getPropertyWithDefault(first, getPropertyWithDefault(second, defaultValue));
+    }
+
+    private static String getRequiredProperty(String name, String fallbackName) {
+        String value = EnvProfile.get(name);
+        if (value == null && fallbackName != null) {
+            value = EnvProfile.get(fallbackName);
+        }
+        if (value == null) {
             throw new IllegalStateException("Required property '" + name + "' is not set in .env file");
         }
-        return value.trim();
+        return value;
     }
     
     private static String getPropertyWithDefault(String name, String defaultValue) {
-        String value = dotenv.get(name);
-        return (value != null && !value.trim().isEmpty()) ? value.trim() : defaultValue;
+        return EnvProfile.get(name, defaultValue);
     }
 }
\ No newline at end of file
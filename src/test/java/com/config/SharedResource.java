@@ -0,0 +1,123 @@
+package com.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Suite-scoped resource: created on first use, shared by every scenario and closed once by
+ * {@link SuiteLifecycle}. Callers look it up with {@link #get()} each time rather than keeping the
+ * instance, so a resource closed early is simply created again on next use.
+ *
+ * Initialization is lock-free: the first caller installs a future and builds the resource, and
+ * concurrent callers wait on that future. A failed initialization is cleared so the next caller
+ * retries, and only callers that actually use the resource see the failure.
+ *
+ * A resource that uses another while it is open, or while it closes, declares that with
+ * {@link #dependsOn}; {@link SuiteLifecycle} then closes it first, whichever was created first.
+ */
+public final class SharedResource<T> {
+    private static final Logger logger = LoggerFactory.getLogger(SharedResource.class);
+    private static final AtomicLong initializations = new AtomicLong();
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final Consumer<T> closer;
+    private final AtomicReference<CompletableFuture<T>> instance = new AtomicReference<>();
+    private final List<SharedResource<?>> dependencies = new CopyOnWriteArrayList<>();
+    // When the current instance finished initializing, relative to every other shared resource
+    private volatile long initializedAt;
+
+    public SharedResource(String name, Supplier<T> factory, Consumer<T> closer) {
+        this.name = name;
+        this.factory = factory;
+        this.closer = closer;
+    }
+
+    // Only orders closing; a dependency is still created on its own first use
+    public SharedResource<T> dependsOn(SharedResource<?>... others) {
+        dependencies.addAll(List.of(others));
+        return this;
+    }
+
+    boolean hasDependency(SharedResource<?> other) {
+        return dependencies.contains(other);
+    }
+
+    public T get() {
+        while (true) {
+            CompletableFuture<T> current = instance.get();
+            if (current != null) {
+                return await(current);
+            }
+            CompletableFuture<T> created = new CompletableFuture<>();
+            if (instance.compareAndSet(null, created)) {
+                try {
+                    logger.info("Initializing shared {}", name);
+                    T resource = factory.get();
+                    initializedAt = initializations.incrementAndGet();
+                    created.complete(resource);
+                    return resource;
+                } catch (RuntimeException | Error e) {
+                    instance.compareAndSet(created, null);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Current instance without triggering or waiting for initialization
+    public T getIfInitialized() {
+        CompletableFuture<T> current = instance.get();
+        return current != null && current.isDone() && !current.isCompletedExceptionally()
+                ? current.join() : null;
+    }
+
+    public boolean isInitialized() {
+        return getIfInitialized() != null;
+    }
+
+    // A resource created inside another's factory finishes first, so it ranks lower than its user
+    long initializationOrder() {
+        return initializedAt;
+    }
+
+    public void close() {
+        CompletableFuture<T> current = instance.getAndSet(null);
+        if (current == null) {
+            return;
+        }
+        T resource;
+        try {
+            resource = current.join();
+        } catch (CompletionException e) {
+            return;
+        }
+        try {
+            closer.accept(resource);
+            logger.info("Shared {} closed", name);
+        } catch (Exception e) {
+            logger.error("Error closing shared {}", name, e);
+        }
+    }
+
+    private T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to initialize shared " + name, e.getCause());
+        }
+    }
+}
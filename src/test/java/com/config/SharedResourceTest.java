@@ -0,0 +1,121 @@
+package com.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedResourceTest {
+
+    @Test
+    public void concurrentCallersShareOneInitialization() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch factoryEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SharedResource<Object> resource = new SharedResource<>("test", () -> {
+            created.incrementAndGet();
+            factoryEntered.countDown();
+            await(release);
+            return new Object();
+        }, r -> { });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(resource::get));
+            }
+            assertTrue(factoryEntered.await(5, TimeUnit.SECONDS));
+            // Everyone else is now waiting on the first caller's future
+            assertNull(resource.getIfInitialized());
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedInitializationIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        SharedResource<String> resource = new SharedResource<>("test", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("not yet");
+            }
+            return "ready";
+        }, r -> { });
+
+        assertThrows(IllegalStateException.class, resource::get);
+        assertNull(resource.getIfInitialized());
+        assertEquals("ready", resource.get());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void closeReleasesOnceAndNextUseRecreates() {
+        AtomicInteger closed = new AtomicInteger();
+        SharedResource<Object> resource = new SharedResource<>("test", Object::new, r -> closed.incrementAndGet());
+
+        Object first = resource.get();
+        resource.close();
+        resource.close();
+        assertEquals(1, closed.get());
+        assertTrue(!resource.isInitialized());
+
+        assertNotSame(first, resource.get());
+    }
+
+    @Test
+    public void dependencyCreatedInsideFactoryRanksLower() {
+        SharedResource<Object> inner = new SharedResource<>("inner", Object::new, r -> { });
+        SharedResource<Object> outer = new SharedResource<>("outer", () -> {
+            inner.get();
+            return new Object();
+        }, r -> { });
+
+        outer.get();
+        assertTrue(inner.initializationOrder() < outer.initializationOrder());
+    }
+
+    @Test
+    public void declaredDependencyClosesAfterItsUser() {
+        List<String> closed = new CopyOnWriteArrayList<>();
+        SharedResource<Object> client = new SharedResource<>("client", Object::new, r -> closed.add("client"));
+        SharedResource<Object> session = new SharedResource<>("session", Object::new, r -> closed.add("session"))
+                .dependsOn(client);
+
+        // The session exists first and only opens the client later, as a pool with no idle channels does
+        session.get();
+        client.get();
+        assertTrue(client.initializationOrder() > session.initializationOrder());
+
+        SuiteLifecycle.closeAll(List.of(session, client));
+        assertEquals(List.of("session", "client"), closed);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
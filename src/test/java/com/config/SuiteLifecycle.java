@@ -0,0 +1,63 @@
+package com.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Closes suite-scoped resources once, either when {@link #closeAll()} is called at the end of the
+ * run or from a JVM shutdown hook. Resources close in reverse order of initialization: whatever a
+ * resource's factory initialized along the way (an SSH client, the local server, the main pool) is
+ * still open while that resource closes. Declared dependencies ({@link SharedResource#dependsOn})
+ * override that order, for dependencies a factory does not touch, such as a pool that opens its
+ * first connection later.
+ */
+public final class SuiteLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(SuiteLifecycle.class);
+    private static final List<SharedResource<?>> resources = new ArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SuiteLifecycle::closeAll, "suite-lifecycle-shutdown"));
+    }
+
+    private SuiteLifecycle() {
+    }
+
+    public static synchronized <T> SharedResource<T> register(SharedResource<T> resource) {
+        resources.add(resource);
+        return resource;
+    }
+
+    public static synchronized void closeAll() {
+        closeAll(resources);
+        logger.info("Suite resources released");
+    }
+
+    static void closeAll(List<SharedResource<?>> resources) {
+        List<SharedResource<?>> toClose = new ArrayList<>(resources);
+        toClose.sort(Comparator.comparingLong((SharedResource<?> resource) -> resource.initializationOrder()).reversed());
+        Set<SharedResource<?>> closed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SharedResource<?> resource : toClose) {
+            close(resource, toClose, closed);
+        }
+    }
+
+    // Everything that declared a dependency on the resource closes before it
+    private static void close(SharedResource<?> resource, List<SharedResource<?>> all, Set<SharedResource<?>> closed) {
+        if (!closed.add(resource)) {
+            return;
+        }
+        for (SharedResource<?> other : all) {
+            if (other.hasDependency(resource)) {
+                close(other, all, closed);
+            }
+        }
+        resource.close();
+    }
+}
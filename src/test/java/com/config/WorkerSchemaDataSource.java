@@ -0,0 +1,306 @@
+package com.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Routes each running scenario to its own PostgreSQL schema, cloned from a template schema on
+ * first use. A scenario leases one of a fixed number of worker slots for its duration; every slot
+ * gets a small pool whose connections start with search_path set to its schema, so fixtures and
+ * cleanup in one scenario never touch rows of a scenario running alongside it. Threads without a
+ * lease (suite setup, listeners) use the admin pool and the template schema.
+ *
+ * Tables are cloned with CREATE TABLE ... (LIKE ... INCLUDING ALL) plus a copy of their rows. Serial
+ * and identity columns get sequences of their own, advanced past the copied ids; foreign keys are
+ * not copied.
+ */
+public class WorkerSchemaDataSource implements DataSource {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerSchemaDataSource.class);
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    // Set on every schema this class creates; a schema without it is never dropped
+    private static final String MARKER = "karate worker schema";
+
+    private final HikariDataSource admin;
+    private final Function<String, HikariConfig> workerConfig;
+    private final String templateSchema;
+    private final String schemaPrefix;
+    private final boolean keepSchemas;
+    private final int slots;
+    private final Consumer<HikariDataSource> warmer;
+
+    // Lowest free slot first, so a run with few concurrent scenarios provisions few schemas
+    private final BlockingQueue<Integer> freeSlots = new PriorityBlockingQueue<>();
+    private final ThreadLocal<Integer> leasedSlot = new ThreadLocal<>();
+    private final Map<Integer, SharedResource<HikariDataSource>> workers = new ConcurrentHashMap<>();
+
+    public WorkerSchemaDataSource(HikariDataSource admin, Function<String, HikariConfig> workerConfig,
+                                  String templateSchema, String schemaPrefix, boolean keepSchemas,
+                                  int slots, Consumer<HikariDataSource> warmer) {
+        if (!IDENTIFIER.matcher(templateSchema).matches() || !IDENTIFIER.matcher(schemaPrefix).matches()) {
+            throw new IllegalArgumentException("Schema names must be lower-case SQL identifiers");
+        }
+        this.admin = admin;
+        this.workerConfig = workerConfig;
+        this.templateSchema = templateSchema;
+        this.schemaPrefix = schemaPrefix;
+        this.keepSchemas = keepSchemas;
+        this.slots = slots;
+        this.warmer = warmer;
+        for (int slot = 0; slot < slots; slot++) {
+            freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * Binds a free worker slot to the calling scenario thread until {@link #release()}. Waits up to
+     * the pool's connection timeout when more scenarios run at once than there are slots.
+     */
+    public void lease() {
+        if (leasedSlot.get() != null) {
+            return;
+        }
+        try {
+            Integer slot = freeSlots.poll(admin.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+            if (slot == null) {
+                throw new IllegalStateException("No free worker schema after " + admin.getConnectionTimeout()
+                        + " ms; more scenarios are running than the " + slots + " configured workers");
+            }
+            leasedSlot.set(slot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a worker schema", e);
+        }
+    }
+
+    public void release() {
+        Integer slot = leasedSlot.get();
+        if (slot != null) {
+            leasedSlot.remove();
+            freeSlots.add(slot);
+        }
+    }
+
+    // Clones and warms every slot's schema up front instead of on each slot's first use
+    public void provisionAll() {
+        for (int slot = 0; slot < slots; slot++) {
+            workerPool(slot);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Integer slot = leasedSlot.get();
+        return slot != null ? workerPool(slot).getConnection() : admin.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Worker schemas use the pool credentials");
+    }
+
+    // Schema the calling thread is routed to
+    public String currentSchema() {
+        Integer slot = leasedSlot.get();
+        return slot != null ? schemaName(slot) : templateSchema;
+    }
+
+    private String schemaName(int slot) {
+        return schemaPrefix + "_" + slot;
+    }
+
+    private HikariDataSource workerPool(int slot) {
+        String schema = schemaName(slot);
+        return workers.computeIfAbsent(slot, index -> new SharedResource<>("worker schema " + schema,
+                () -> provision(schema), pool -> dispose(schema, pool))).get();
+    }
+
+    private HikariDataSource provision(String schema) {
+        long start = System.nanoTime();
+        try (Connection conn = admin.getConnection(); Statement stmt = conn.createStatement()) {
+            dropWorkerSchema(conn, schema);
+            stmt.execute("CREATE SCHEMA " + schema);
+            stmt.execute("COMMENT ON SCHEMA " + schema + " IS '" + MARKER + "'");
+            List<String> tables = templateTables(conn);
+            for (String table : tables) {
+                String source = templateSchema + "." + quote(table);
+                String target = schema + "." + quote(table);
+                stmt.execute("CREATE TABLE " + target + " (LIKE " + source + " INCLUDING ALL)");
+                // Copied ids are kept even for GENERATED ALWAYS identity columns
+                stmt.execute("INSERT INTO " + target + " OVERRIDING SYSTEM VALUE SELECT * FROM " + source);
+                resetSequences(conn, schema, table);
+            }
+            logger.info("Cloned {} tables from {} into worker schema {} in {} ms",
+                    tables.size(), templateSchema, schema, (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create worker schema " + schema, e);
+        }
+        HikariDataSource pool = new HikariDataSource(workerConfig.apply(schema));
+        warmer.accept(pool);
+        return pool;
+    }
+
+    /**
+     * LIKE gives identity columns fresh sequences starting at 1, while serial defaults keep calling
+     * the template's sequence. Serial columns get a sequence owned by the cloned table, and every
+     * sequence is moved past the highest copied value so the first fixture insert gets a new id.
+     */
+    private void resetSequences(Connection conn, String schema, String table) throws SQLException {
+        String target = schema + "." + quote(table);
+        List<String> columns = new ArrayList<>();
+        List<String> serialColumns = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT column_name, is_identity FROM information_schema.columns WHERE table_schema = ? "
+                        + "AND table_name = ? AND (is_identity = 'YES' OR column_default LIKE 'nextval(%')")) {
+            stmt.setString(1, schema);
+            stmt.setString(2, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs.getString(1));
+                    if (!"YES".equals(rs.getString(2))) {
+                        serialColumns.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        for (String column : serialColumns) {
+            ownSequence(conn, schema, table, column);
+        }
+        for (String column : columns) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT setval(pg_get_serial_sequence(?, ?), "
+                    + "COALESCE(MAX(" + quote(column) + "), 0) + 1, false) FROM " + target)) {
+                stmt.setString(1, target);
+                stmt.setString(2, column);
+                stmt.execute();
+            }
+        }
+    }
+
+    private void ownSequence(Connection conn, String schema, String table, String column) throws SQLException {
+        String sequence = schema + "." + quote(table + "_" + column + "_seq");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE SEQUENCE " + sequence + " OWNED BY " + schema + "." + quote(table) + "." + quote(column));
+            stmt.execute("ALTER TABLE " + schema + "." + quote(table) + " ALTER COLUMN " + quote(column)
+                    + " SET DEFAULT nextval('" + sequence.replace("'", "''") + "')");
+        }
+    }
+
+    private List<String> templateTables(Connection conn) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_type = 'BASE TABLE'")) {
+            stmt.setString(1, templateSchema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private void dispose(String schema, HikariDataSource pool) {
+        logger.info("Worker schema {} pool statistics: {}", schema, PoolWaitTracker.statistics(pool));
+        pool.close();
+        if (keepSchemas || admin.isClosed()) {
+            return;
+        }
+        try (Connection conn = admin.getConnection()) {
+            dropWorkerSchema(conn, schema);
+            logger.info("Dropped worker schema {}", schema);
+        } catch (SQLException | IllegalStateException e) {
+            logger.warn("Could not drop worker schema {}: {}", schema, e.getMessage());
+        }
+    }
+
+    /**
+     * Drops a worker schema left by this or an earlier run. A schema of that name without the marker
+     * belongs to something else, typically after a DB_WORKER_SCHEMA_PREFIX mistake, and fails the run.
+     */
+    private static void dropWorkerSchema(Connection conn, String schema) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT obj_description(oid, 'pg_namespace') FROM pg_namespace WHERE nspname = ?")) {
+            stmt.setString(1, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                if (!MARKER.equals(rs.getString(1))) {
+                    throw new IllegalStateException("Schema " + schema + " exists but was not created as a worker "
+                            + "schema; refusing to drop it. Choose another DB_WORKER_SCHEMA_PREFIX");
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA " + schema + " CASCADE");
+        }
+    }
+
+    // Closes every worker pool and drops the worker schemas; the admin pool is left to its owner
+    public void close() {
+        workers.values().forEach(SharedResource::close);
+        workers.clear();
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return admin.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        admin.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        admin.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return admin.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,78 @@
+package com.db;
+
+import com.config.DatabaseConfig;
+import com.utils.QueryLoader;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-through cache in front of a DbService. Only reads whose query declares its tables in
+ * queries.properties are cached; RowMapper queries always go to the database because a mapper
+ * lambda has no stable identity to key on. With worker schemas, each worker's results are cached
+ * separately.
+ */
+public class CachingDbService implements DbService {
+    private static final String MAP_ROWS = "maps";
+
+    private final DbService delegate;
+    private final QueryResultCache cache;
+
+    public CachingDbService(DbService delegate, QueryResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // Wraps the service in the shared suite cache when DB_QUERY_CACHE_ENABLED is set
+    public static DbService wrapIfEnabled(DbService delegate) {
+        QueryResultCache cache = QueryResultCache.shared();
+        return cache.isEnabled() ? new CachingDbService(delegate, cache) : delegate;
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String queryKey, Object... params) {
+        Set<String> tables = QueryLoader.getTables(queryKey);
+        if (!isCacheable(tables)) {
+            return delegate.executeQuery(queryKey, params);
+        }
+        return cache.get(queryKey, List.of(MAP_ROWS, DatabaseConfig.currentWorkerSchema()), params, tables,
+                () -> Collections.unmodifiableList(delegate.executeQuery(queryKey, params)));
+    }
+
+    @Override
+    public <T> List<T> query(String queryKey, RowMapper<T> rowMapper, Object... params) {
+        return delegate.query(queryKey, rowMapper, params);
+    }
+
+    @Override
+    public <R extends Record> List<R> queryForRecords(String queryKey, Class<R> recordType, Object... params) {
+        Set<String> tables = QueryLoader.getTables(queryKey);
+        if (!isCacheable(tables)) {
+            return delegate.queryForRecords(queryKey, recordType, params);
+        }
+        return cache.get(queryKey, List.of(recordType, DatabaseConfig.currentWorkerSchema()), params, tables,
+                () -> List.copyOf(delegate.queryForRecords(queryKey, recordType, params)));
+    }
+
+    @Override
+    public int executeUpdate(String queryKey, Object... params) {
+        try {
+            return delegate.executeUpdate(queryKey, params);
+        } finally {
+            // Invalidate even on failure - a partially applied statement may still have changed rows
+            cache.invalidate(QueryLoader.getTables(queryKey));
+        }
+    }
+
+    // Reads inside a scenario transaction may see uncommitted rows that must never reach other scenarios
+    private boolean isCacheable(Set<String> tables) {
+        return !tables.isEmpty() && !ScenarioTransaction.isActive();
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
@@ -0,0 +1,71 @@
+package com.db;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column labels and positions of a ResultSet, resolved once and shared by every row read from it.
+ * Positions are 0-based.
+ */
+public final class ColumnIndex {
+    private final String[] labels;
+    private final int[] distinctPositions;
+    private final Map<String, Integer> positions;
+    private final Map<String, Integer> normalizedPositions;
+
+    private ColumnIndex(String[] labels) {
+        this.labels = labels;
+        this.positions = new HashMap<>(labels.length * 2);
+        this.normalizedPositions = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++) {
+            // Same rule as HashMap.put: a repeated label resolves to its last column
+            positions.put(labels[i], i);
+            normalizedPositions.putIfAbsent(normalize(labels[i]), i);
+        }
+        this.distinctPositions = positions.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    public static ColumnIndex of(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return new ColumnIndex(labels);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public String label(int position) {
+        return labels[position];
+    }
+
+    // Exact label lookup, -1 when absent
+    public int indexOf(Object label) {
+        Integer position = positions.get(label);
+        return position != null ? position : -1;
+    }
+
+    // Lenient lookup used for projections: exact label first, then ignoring case and underscores
+    // so a record component "fileName" matches a column "file_name" or "FILE_NAME"
+    public int find(String name) {
+        int position = indexOf(name);
+        if (position >= 0) {
+            return position;
+        }
+        Integer normalized = normalizedPositions.get(normalize(name));
+        return normalized != null ? normalized : -1;
+    }
+
+    int[] distinctPositions() {
+        return distinctPositions;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
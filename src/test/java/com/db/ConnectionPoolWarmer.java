@@ -0,0 +1,123 @@
+package com.db;
+
+import com.config.DatabaseConfig;
+import com.config.EnvProfile;
+import com.utils.QueryLoader;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the pool to the expected parallelism before the first scenario runs, so no scenario pays
+ * for connection setup. Each connection is validated and has the hot statements parsed by the
+ * driver and described by the server, which also loads them into the driver's per-connection
+ * statement cache.
+ */
+public final class ConnectionPoolWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolWarmer.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final AtomicBoolean warmedUp = new AtomicBoolean();
+
+    private ConnectionPoolWarmer() {
+    }
+
+    // Warms the suite pool once; later calls return immediately. With worker isolation scenarios
+    // use the worker pools, so those are provisioned (and warmed) instead of the primary pool.
+    public static void warmUpOnce() {
+        if (warmedUp.compareAndSet(false, true)) {
+            if (DatabaseConfig.isWorkerIsolation()) {
+                DatabaseConfig.provisionWorkerSchemas();
+            } else {
+                warmUp(DatabaseConfig.getPrimaryDataSource(), DatabaseConfig.karateThreads(), hotQueryKeys());
+            }
+        }
+    }
+
+    public static void warmUp(DataSource dataSource, int connections, Collection<String> queryKeys) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            connections = Math.min(connections, hikari.getMaximumPoolSize());
+        }
+        long start = System.nanoTime();
+        List<Connection> held = new ArrayList<>(connections);
+        int prepared = 0;
+        try {
+            // Hold every connection until the end so the pool has to open a distinct one each time
+            for (int i = 0; i < connections; i++) {
+                Connection conn = dataSource.getConnection();
+                held.add(conn);
+                if (!conn.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    logger.warn("Evicting connection that failed validation during warm-up");
+                    evict(dataSource, conn);
+                    held.remove(conn);
+                    continue;
+                }
+                prepared += prepare(conn, queryKeys);
+            }
+        } catch (SQLException e) {
+            logger.warn("Connection pool warm-up stopped after {} connections: {}", held.size(), e.getMessage());
+        } finally {
+            for (Connection conn : held) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.warn("Error returning warm-up connection to the pool", e);
+                }
+            }
+        }
+        logger.info("Connection pool warmed up: {} connections, {} statements prepared in {} ms",
+                held.size(), prepared, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // DB_WARMUP_QUERIES=KEY1,KEY2 limits warm-up to the listed statements; default is every query
+    public static Collection<String> hotQueryKeys() {
+        String configured = EnvProfile.get("DB_WARMUP_QUERIES");
+        if (configured == null) {
+            return QueryLoader.getQueryKeys();
+        }
+        return Arrays.stream(configured.split(","))
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static int prepare(Connection conn, Collection<String> queryKeys) {
+        int prepared = 0;
+        for (String queryKey : queryKeys) {
+            String query = QueryLoader.getQuery(queryKey);
+            if (query == null) {
+                continue;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.getParameterMetaData();
+                prepared++;
+            } catch (SQLException e) {
+                logger.warn("Could not prepare {} during warm-up: {}", queryKey, e.getMessage());
+            }
+        }
+        return prepared;
+    }
+
+    private static void evict(DataSource dataSource, Connection conn) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.evictConnection(conn);
+        } else {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing invalid connection", e);
+            }
+        }
+    }
+}
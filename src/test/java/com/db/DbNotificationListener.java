@@ -0,0 +1,182 @@
+package com.db;
+
+import com.config.DatabaseConfig;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * One PostgreSQL connection LISTENing on behalf of every waiter in the suite. A single daemon thread
+ * reads notifications and wakes the subscriptions registered for that channel, so any number of
+ * scenarios can wait for rows without each holding a connection or polling.
+ */
+public final class DbNotificationListener {
+    private static final Logger logger = LoggerFactory.getLogger(DbNotificationListener.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    // How long one read blocks; also bounds how quickly a new LISTEN is issued
+    private static final int READ_TIMEOUT_MILLIS = 250;
+
+    private static final SharedResource<DbNotificationListener> listener = SuiteLifecycle.register(
+            new SharedResource<>("database notification listener", DbNotificationListener::start,
+                    DbNotificationListener::stop));
+
+    private final Connection connection;
+    private final PGConnection pgConnection;
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<String> listening = ConcurrentHashMap.newKeySet();
+    private final Queue<String> pendingListens = new ConcurrentLinkedQueue<>();
+    private final Thread reader;
+    private volatile boolean running = true;
+
+    private DbNotificationListener(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.pgConnection = connection.unwrap(PGConnection.class);
+        this.reader = new Thread(this::readLoop, "db-notification-listener");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Subscribes to a channel, or returns null when notifications are unavailable (not PostgreSQL,
+     * no connection), in which case the caller should fall back to polling.
+     */
+    public static Subscription subscribe(String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        DbNotificationListener instance;
+        try {
+            instance = listener.get();
+        } catch (RuntimeException e) {
+            logger.warn("Database notifications unavailable, falling back to polling: {}", e.getMessage());
+            return null;
+        }
+        return instance.running ? instance.register(channel) : null;
+    }
+
+    private static DbNotificationListener start() {
+        Connection connection = null;
+        try {
+            // Held for the whole suite; LISTEN registrations belong to this one session
+            connection = DatabaseConfig.getPrimaryDataSource().getConnection();
+            connection.setAutoCommit(true);
+            return new DbNotificationListener(connection);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new DatabaseException("Failed to start database notification listener", e);
+        }
+    }
+
+    private Subscription register(String channel) {
+        Subscription subscription = new Subscription(channel);
+        subscriptions.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        if (listening.add(channel)) {
+            pendingListens.add(channel);
+        }
+        return subscription;
+    }
+
+    private void readLoop() {
+        try {
+            while (running) {
+                String channel;
+                while ((channel = pendingListens.poll()) != null) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                    logger.info("Listening for database notifications on '{}'", channel);
+                }
+                PGNotification[] notifications = pgConnection.getNotifications(READ_TIMEOUT_MILLIS);
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        Set<Subscription> waiting = subscriptions.get(notification.getName());
+                        if (waiting != null) {
+                            waiting.forEach(Subscription::signal);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            if (running) {
+                logger.warn("Database notification listener stopped, waiters fall back to polling", e);
+            }
+        } finally {
+            running = false;
+            // Wake everyone so they re-check now and poll from here on
+            subscriptions.values().forEach(waiting -> waiting.forEach(Subscription::signal));
+        }
+    }
+
+    private static void stop(DbNotificationListener instance) {
+        instance.running = false;
+        try {
+            instance.reader.join(READ_TIMEOUT_MILLIS * 4L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(instance.connection);
+        logger.info("Database notification listener closed");
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Failed to close notification connection", e);
+            }
+        }
+    }
+
+    // A waiter's handle: await() returns early when a notification arrives on the channel
+    public final class Subscription implements AutoCloseable {
+        private final String channel;
+        private final Semaphore signals = new Semaphore(0);
+
+        private Subscription(String channel) {
+            this.channel = channel;
+        }
+
+        private void signal() {
+            // Any number of notifications between two checks collapse into one wake-up
+            if (signals.availablePermits() == 0) {
+                signals.release();
+            }
+        }
+
+        // True when woken by a notification, false when the timeout elapsed
+        public boolean await(long timeoutMillis) throws InterruptedException {
+            boolean notified = signals.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            signals.drainPermits();
+            return notified;
+        }
+
+        public boolean isLive() {
+            return running;
+        }
+
+        @Override
+        public void close() {
+            Set<Subscription> waiting = subscriptions.get(channel);
+            if (waiting != null) {
+                waiting.remove(this);
+            }
+        }
+    }
+}
@@ -3,45 +3,68 @@ package com.db;
 
 import org.slf4j.Logger;
 
+import com.config.DatabaseConfig;
 import com.utils.LoggerUtil;
 import com.utils.QueryLoader;
 
+import javax.sql.DataSource;
 import java.sql.*;
+import java.util.List;
 
 public class DbQueryService {
     private static final Logger logger = LoggerUtil.getLogger(DbQueryService.class);
-    private Connection connection;
+    private final DataSource dataSource;
 
-    public DbQueryService() throws SQLException {
-        this.connection = DbConnection.getConnection();
+    public DbQueryService() {
+        this(DatabaseConfig.getDataSource());
     }
 
-    public ResultSet executeQuery(String queryKey) throws SQLException {
+    public DbQueryService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Rows are mapped while the cursor is open; the connection goes back to the pool before returning
+    // unless the scenario runs in a rollback-only transaction
+    public <T> List<T> executeQuery(String queryKey, RowMapper<T> rowMapper, Object... params) throws SQLException {
         var query = QueryLoader.getQuery(queryKey);
         logger.info("Executing query: {}", query);
-        try (var stmt = connection.createStatement(); var rs = stmt.executeQuery(query)) {
-            return rs;
+        try {
+            return ScenarioTransaction.execute(dataSource, conn -> {
+                try (var stmt = conn.prepareStatement(query)) {
+                    setParameters(stmt, params);
+                    try (var rs = stmt.executeQuery()) {
+                        return ResultSets.map(rs, rowMapper);
+                    }
+                }
+            });
         } catch (SQLException e) {
             logger.error("Error executing query: {}", query, e);
             throw e;
         }
     }
 
-    public int executeUpdate(String queryKey, String... params) throws SQLException {
+    public int executeUpdate(String queryKey, Object... params) throws SQLException {
         var query = QueryLoader.getQuery(queryKey);
-        if (params != null && params.length > 0) {
-            query = String.format(query, (Object[]) params);
-        }
         logger.info("Executing update: {}", query);
-        try (var stmt = connection.createStatement()) {
-            return stmt.executeUpdate(query);
+        try {
+            return ScenarioTransaction.execute(dataSource, conn -> {
+                try (var stmt = conn.prepareStatement(query)) {
+                    setParameters(stmt, params);
+                    return stmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             logger.error("Error executing update: {}", query, e);
             throw e;
         }
     }
 
-    public void closeConnection() throws SQLException {
-        DbConnection.closeConnection();
+    private void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
+        if (params == null) {
+            return;
+        }
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
     }
 }
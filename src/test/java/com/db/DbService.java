@@ -5,5 +5,7 @@ import java.util.Map;
 
 public interface DbService extends AutoCloseable {
     List<Map<String, Object>> executeQuery(String queryKey, Object... params);
+    <T> List<T> query(String queryKey, RowMapper<T> rowMapper, Object... params);
+    <R extends Record> List<R> queryForRecords(String queryKey, Class<R> recordType, Object... params);
     int executeUpdate(String queryKey, Object... params);
 }
@@ -6,60 +6,65 @@ import com.utils.QueryLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class DbServiceImpl implements DbService {
     private static final Logger logger = LoggerFactory.getLogger(DbServiceImpl.class);
-    private final DataSource dataSource;
-    private Connection currentConnection;
-
+    // Looks up the suite-wide pool on every call and borrows its own connection (or joins the
+    // scenario's transaction), so one instance can be shared by parallel scenarios and held across
+    // a pool being closed and reopened
     public DbServiceImpl() {
-        this.dataSource = DatabaseConfig.getDataSource();
     }
 
-    private Connection getConnection() throws SQLException {
-        if (currentConnection == null || currentConnection.isClosed()) {
-            currentConnection = dataSource.getConnection();
-        }
-        return currentConnection;
+    @Override
+    public List<Map<String, Object>> executeQuery(String queryKey, Object... params) {
+        return runQuery(queryKey, ResultSets::toMaps, params);
     }
 
     @Override
-    public List<Map<String, Object>> executeQuery(String queryKey, Object... params) {
+    public <T> List<T> query(String queryKey, RowMapper<T> rowMapper, Object... params) {
+        return runQuery(queryKey, rs -> ResultSets.map(rs, rowMapper), params);
+    }
+
+    @Override
+    public <R extends Record> List<R> queryForRecords(String queryKey, Class<R> recordType, Object... params) {
+        return runQuery(queryKey, rs -> ResultSets.toRecords(rs, recordType), params);
+    }
+
+    private <T> List<T> runQuery(String queryKey, ResultSetHandler<T> handler, Object... params) {
         String query = QueryLoader.getQuery(queryKey);
-        List<Map<String, Object>> results = new ArrayList<>();
 
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            setParameters(stmt, params);
-            logger.info("Executing query: {}", query);
+        try {
+            return ScenarioTransaction.execute(DatabaseConfig.getDataSource(), conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    setParameters(stmt, params);
+                    logger.info("Executing query: {}", query);
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                results = mapResultSet(rs);
-            }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return handler.handle(rs);
+                    }
+                }
+            });
         } catch (SQLException e) {
             logger.error("Error executing query: {}", query, e);
             throw new DatabaseException("Database query failed", e);
         }
-        return results;
     }
 
     @Override
     public int executeUpdate(String queryKey, Object... params) {
         String query = QueryLoader.getQuery(queryKey);
         
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            setParameters(stmt, params);
-            logger.info("Executing update: {}", query);
-            return stmt.executeUpdate();
+        try {
+            return ScenarioTransaction.execute(DatabaseConfig.getDataSource(), conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    setParameters(stmt, params);
+                    logger.info("Executing update: {}", query);
+                    return stmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             logger.error("Error executing update: {}", query, e);
             throw new DatabaseException("Database update failed", e);
@@ -72,31 +77,13 @@ public class DbServiceImpl implements DbService {
         }
     }
 
-    private List<Map<String, Object>> mapResultSet(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        while (rs.next()) {
-            Map<String, Object> row = new HashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                row.put(metaData.getColumnName(i), rs.getObject(i));
-            }
-            results.add(row);
-        }
-        return results;
+    @FunctionalInterface
+    private interface ResultSetHandler<T> {
+        List<T> handle(ResultSet rs) throws SQLException;
     }
 
+    // Nothing to release: the pool belongs to DatabaseConfig and is closed once at the end of the suite
     @Override
-    public void close() throws Exception {
-        if (currentConnection != null && !currentConnection.isClosed()) {
-            try {
-                currentConnection.close();
-                logger.info("Database connection closed");
-            } catch (SQLException e) {
-                logger.error("Error closing database connection", e);
-                throw new DatabaseException("Failed to close database connection", e);
-            }
-        }
+    public void close() {
     }
 }
@@ -0,0 +1,131 @@
+package com.db;
+
+import com.config.QueryCacheConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Suite-wide LRU cache of query results with a time-to-live. Entries remember the tables they
+ * were read from so updates can invalidate exactly the results they make stale.
+ */
+public class QueryResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+    private static final QueryResultCache shared = new QueryResultCache(QueryCacheConfig.load());
+
+    private final QueryCacheConfig config;
+    private final Map<Key, Entry> entries;
+    // Bumped on every invalidation so a load that raced with an update is not stored
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public QueryResultCache(QueryCacheConfig config) {
+        this.config = config;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > config.getMaxEntries()) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static QueryResultCache shared() {
+        return shared;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public <T> T get(String queryKey, Object discriminator, Object[] params, Set<String> tables, Supplier<T> loader) {
+        Key key = new Key(queryKey, discriminator, params);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                @SuppressWarnings("unchecked")
+                T value = (T) entry.value;
+                return value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        T value = loader.get();
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(key, new Entry(value, tables, now + config.getTtlMillis()));
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(Set<String> tables) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            int before = entries.size();
+            if (tables.isEmpty()) {
+                entries.clear();
+            } else {
+                entries.values().removeIf(entry -> entry.tables.stream().anyMatch(tables::contains));
+            }
+            invalidations.add(before - entries.size());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    public void logStats() {
+        Stats stats = stats();
+        logger.info("Query cache: {} hits, {} misses ({} hit rate), {} evicted, {} invalidated",
+                stats.hits(), stats.misses(), String.format("%.1f%%", stats.hitRate() * 100),
+                stats.evictions(), stats.invalidations());
+    }
+
+    private record Key(String queryKey, Object discriminator, Object[] params) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                    && queryKey.equals(other.queryKey)
+                    && discriminator.equals(other.discriminator)
+                    && Arrays.deepEquals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * queryKey.hashCode() + discriminator.hashCode()) + Arrays.deepHashCode(params);
+        }
+    }
+
+    private record Entry(Object value, Set<String> tables, long expiresAt) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.db;
+
+import com.config.QueryCacheConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class QueryResultCacheTest {
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private static QueryResultCache cache(long ttlMillis, int maxEntries) {
+        return new QueryResultCache(QueryCacheConfig.builder().enabled(true).ttlMillis(ttlMillis)
+                .maxEntries(maxEntries).build());
+    }
+
+    @Test
+    public void servesCachedResultUntilTtlExpires() throws InterruptedException {
+        QueryResultCache cache = cache(200, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet));
+        assertEquals(1, cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet));
+        assertEquals(1, cache.stats().hits());
+
+        Thread.sleep(300);
+        assertEquals(2, cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    public void parametersAndDiscriminatorAreSeparateEntries() {
+        QueryResultCache cache = cache(60000, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("user", "rows", new Object[]{1}, Set.of("users"), loads::incrementAndGet);
+        cache.get("user", "rows", new Object[]{2}, Set.of("users"), loads::incrementAndGet);
+        cache.get("user", "mapper", new Object[]{1}, Set.of("users"), loads::incrementAndGet);
+        cache.get("user", "rows", new Object[]{1}, Set.of("users"), loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void invalidationDropsOnlyEntriesReadingTheTables() {
+        QueryResultCache cache = cache(60000, 10);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet);
+        cache.get("orders", "rows", NO_PARAMS, Set.of("orders", "users"), loads::incrementAndGet);
+        cache.get("products", "rows", NO_PARAMS, Set.of("products"), loads::incrementAndGet);
+
+        cache.invalidate(Set.of("users"));
+
+        assertEquals(2, cache.stats().invalidations());
+        assertEquals(3, cache.get("products", "rows", NO_PARAMS, Set.of("products"), loads::incrementAndGet));
+        assertEquals(4, cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet));
+    }
+
+    @Test
+    public void emptyTableSetClearsEverything() {
+        QueryResultCache cache = cache(60000, 10);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet);
+        cache.get("products", "rows", NO_PARAMS, Set.of("products"), loads::incrementAndGet);
+
+        cache.invalidate(Set.of());
+
+        assertEquals(3, cache.get("products", "rows", NO_PARAMS, Set.of("products"), loads::incrementAndGet));
+    }
+
+    @Test
+    public void loadRacingAnInvalidationIsNotStored() {
+        QueryResultCache cache = cache(60000, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("users", "rows", NO_PARAMS, Set.of("users"), () -> {
+            // An update lands while the query is still running
+            cache.invalidate(Set.of("users"));
+            return loads.incrementAndGet();
+        });
+
+        assertEquals(2, cache.get("users", "rows", NO_PARAMS, Set.of("users"), loads::incrementAndGet));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        QueryResultCache cache = cache(60000, 2);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet);
+        cache.get("b", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet);
+        cache.get("a", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet);
+        cache.get("c", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet);
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(1, cache.get("a", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet));
+        assertEquals(4, cache.get("b", "rows", NO_PARAMS, Set.of("t"), loads::incrementAndGet));
+    }
+}
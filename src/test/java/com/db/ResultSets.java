@@ -0,0 +1,128 @@
+package com.db;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Result set mapping helpers. Column metadata is resolved once per ResultSet, never per cell.
+ */
+public final class ResultSets {
+    private static final Map<Class<?>, RecordShape<?>> recordShapes = new ConcurrentHashMap<>();
+
+    private ResultSets() {
+    }
+
+    public static <T> List<T> map(ResultSet rs, RowMapper<T> rowMapper) throws SQLException {
+        List<T> results = new ArrayList<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            results.add(rowMapper.mapRow(rs, rowNum++));
+        }
+        return results;
+    }
+
+    public static List<Row> toRows(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs.getMetaData());
+        return map(rs, (row, rowNum) -> readRow(row, columns));
+    }
+
+    // Same rows as toRows, typed for the existing List<Map> callers (Karate steps, validators)
+    public static List<Map<String, Object>> toMaps(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs.getMetaData());
+        return map(rs, (row, rowNum) -> readRow(row, columns));
+    }
+
+    public static <R extends Record> List<R> toRecords(ResultSet rs, Class<R> recordType) throws SQLException {
+        return map(rs, recordMapper(rs, recordType));
+    }
+
+    // Resolves the record's components against this ResultSet's columns up front
+    public static <R extends Record> RowMapper<R> recordMapper(ResultSet rs, Class<R> recordType) throws SQLException {
+        @SuppressWarnings("unchecked")
+        RecordShape<R> shape = (RecordShape<R>) recordShapes.computeIfAbsent(recordType, RecordShape::new);
+        ColumnIndex columns = ColumnIndex.of(rs.getMetaData());
+
+        int[] positions = new int[shape.components.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = columns.find(shape.components[i].getName());
+            if (positions[i] < 0) {
+                throw new DatabaseException("No column matches component '" + shape.components[i].getName()
+                        + "' of " + recordType.getSimpleName());
+            }
+        }
+        return (row, rowNum) -> shape.newInstance(row, positions);
+    }
+
+    private static Row readRow(ResultSet rs, ColumnIndex columns) throws SQLException {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return new Row(columns, values);
+    }
+
+    private static final class RecordShape<R> {
+        private final Class<R> type;
+        private final RecordComponent[] components;
+        private final Class<?>[] valueTypes;
+        private final Constructor<R> constructor;
+
+        RecordShape(Class<?> recordType) {
+            @SuppressWarnings("unchecked")
+            Class<R> type = (Class<R>) recordType;
+            this.type = type;
+            this.components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            this.valueTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                valueTypes[i] = boxed(parameterTypes[i]);
+            }
+            try {
+                this.constructor = type.getDeclaredConstructor(parameterTypes);
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new DatabaseException("No canonical constructor on " + type.getName(), e);
+            }
+        }
+
+        R newInstance(ResultSet rs, int[] positions) throws SQLException {
+            Object[] args = new Object[components.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = valueTypes[i] == Object.class
+                        ? rs.getObject(positions[i] + 1)
+                        : rs.getObject(positions[i] + 1, valueTypes[i]);
+                if (args[i] == null && components[i].getType().isPrimitive()) {
+                    throw new DatabaseException("NULL value for primitive component '" + components[i].getName()
+                            + "' of " + type.getSimpleName());
+                }
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new DatabaseException("Failed to create " + type.getSimpleName() + " from result row", e);
+            }
+        }
+
+        private static Class<?> boxed(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return type;
+            }
+            if (type == int.class) return Integer.class;
+            if (type == long.class) return Long.class;
+            if (type == boolean.class) return Boolean.class;
+            if (type == double.class) return Double.class;
+            if (type == float.class) return Float.class;
+            if (type == short.class) return Short.class;
+            if (type == byte.class) return Byte.class;
+            return Character.class;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.db;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only Map view over one array-backed result row. The column index is shared with every
+ * other row of the same ResultSet, so a row costs one Object[] instead of a HashMap per record.
+ */
+public final class Row extends AbstractMap<String, Object> {
+    private final ColumnIndex columns;
+    private final Object[] values;
+
+    Row(ColumnIndex columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public Object get(int position) {
+        return values[position];
+    }
+
+    public ColumnIndex columns() {
+        return columns;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = columns.indexOf(key);
+        return position >= 0 ? values[position] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return columns.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return columns.distinctPositions().length;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                int[] positions = columns.distinctPositions();
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < positions.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int position = positions[next++];
+                        return new SimpleImmutableEntry<>(columns.label(position), values[position]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Row.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.db;
+
+import com.config.EnvProfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Runs all database work of a scenario in one transaction that is rolled back when the scenario
+ * ends, so cleanup costs the same regardless of data volume and never contends with other
+ * workers. The transaction is bound to the scenario's thread and only takes a pool connection
+ * once the scenario first touches the database.
+ *
+ * Enabled with DB_SCENARIO_ISOLATION=rollback. Rolled-back data is never visible to other
+ * connections, so scenarios whose inserts must be seen by the system under test opt out. Each
+ * statement runs under a savepoint, so one failing statement (an expected constraint violation,
+ * say) does not abort the transaction for the rest of the scenario.
+ */
+public final class ScenarioTransaction {
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioTransaction.class);
+    private static final boolean enabled = "rollback".equalsIgnoreCase(EnvProfile.get("DB_SCENARIO_ISOLATION", "delete"));
+
+    private static final ThreadLocal<ScenarioTransaction> current = new ThreadLocal<>();
+
+    private Connection connection;
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    // Arms a rollback-only transaction for the calling scenario thread
+    public static void begin() {
+        if (current.get() != null) {
+            logger.warn("Previous scenario transaction was not ended; rolling it back");
+            end();
+        }
+        current.set(new ScenarioTransaction());
+    }
+
+    // Rolls back and releases the scenario's connection; returns false when no transaction was armed
+    public static boolean end() {
+        ScenarioTransaction transaction = current.get();
+        current.remove();
+        if (transaction == null) {
+            return false;
+        }
+        transaction.rollbackAndRelease();
+        return true;
+    }
+
+    // Runs the work on the scenario's transaction when one is armed, otherwise on a pooled connection
+    public static <T> T execute(DataSource dataSource, SqlWork<T> work) throws SQLException {
+        ScenarioTransaction transaction = current.get();
+        if (transaction != null) {
+            return transaction.withinSavepoint(dataSource, work);
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            return work.apply(conn);
+        }
+    }
+
+    // PostgreSQL refuses every later statement of a transaction after an error (25P02) unless it is
+    // rolled back to a savepoint taken before the failing statement
+    private <T> T withinSavepoint(DataSource dataSource, SqlWork<T> work) throws SQLException {
+        Connection conn = connection(dataSource);
+        Savepoint savepoint = conn.setSavepoint();
+        T result;
+        try {
+            result = work.apply(conn);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback(savepoint);
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        }
+        conn.releaseSavepoint(savepoint);
+        return result;
+    }
+
+    private Connection connection(DataSource dataSource) throws SQLException {
+        if (connection == null) {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private void rollbackAndRelease() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            logger.info("Scenario transaction rolled back");
+        } catch (SQLException e) {
+            logger.error("Error rolling back scenario transaction", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.error("Error releasing scenario connection", e);
+            }
+        }
+    }
+}
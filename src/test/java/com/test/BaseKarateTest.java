@@ -5,38 +5,51 @@ import org.junit.jupiter.api.BeforeEach;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.config.DatabaseConfig;
-import com.config.SftpConfig;
-import com.config.SftpEnvironmentConfig;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.db.DbService;
 import com.db.DbServiceImpl;
 import com.intuit.karate.junit5.Karate;
 import com.transfer.FileTransferService;
-import com.transfer.SecureFileTransfer;
+import com.transfer.SharedFileTransfer;
 
 public abstract class BaseKarateTest {
     private static final Logger logger = LoggerFactory.getLogger(BaseKarateTest.class);
     
-    // Instance services for each test scenario
+    // Per-scenario handles onto the suite-wide pool and SFTP session.
+    // Both are created on first use and closed once when the suite ends (see SuiteLifecycle).
     protected DbService dbService;
     protected FileTransferService fileTransferService;
     
     @BeforeEach
     public void setUp() {
-        logger.info("Initializing resources for the scenario");
+        // Only open what the test class declares with @RequiresResources
+        Set<ScenarioResource> resources = requiredResources();
+        logger.info("Initializing resources for the scenario: {}", resources);
         
-        // Initialize database service for the scenario
-        initDbService();
+        if (resources.contains(ScenarioResource.DATABASE)) {
+            initDbService();
+        }
         
-        // Initialize SFTP service for the scenario
-        initFileTransferService();
+        if (resources.contains(ScenarioResource.SFTP)) {
+            initFileTransferService();
+        }
+    }
+    
+    private Set<ScenarioResource> requiredResources() {
+        RequiresResources declared = getClass().getAnnotation(RequiresResources.class);
+        Set<ScenarioResource> resources = EnumSet.noneOf(ScenarioResource.class);
+        if (declared != null) {
+            resources.addAll(Arrays.asList(declared.value()));
+        }
+        return resources;
     }
     
     private void initDbService() {
         try {
-            logger.info("Initializing database connection");
             dbService = new DbServiceImpl();
-            logger.info("Database connection established successfully");
         } catch (Exception e) {
             logger.error("Failed to initialize database connection: {}", e.getMessage());
             throw new RuntimeException("Could not establish database connection", e);
@@ -45,10 +58,7 @@ public abstract class BaseKarateTest {
     
     private void initFileTransferService() {
         try {
-            logger.info("Initializing SFTP connection");
-            SftpConfig config = SftpEnvironmentConfig.loadConfig();
-            fileTransferService = new SecureFileTransfer(config);
-            logger.info("SFTP connection established successfully");
+            fileTransferService = SharedFileTransfer.get();
         } catch (Exception e) {
             logger.error("Failed to initialize SFTP connection: {}", e.getMessage());
             throw new RuntimeException("Could not establish SFTP connection", e);
@@ -57,30 +67,20 @@ public abstract class BaseKarateTest {
 
     @AfterEach
     public void tearDown() {
-        logger.info("Cleaning up resources for the scenario");
+        logger.info("Releasing resources for the scenario");
         
-        // Close database service
+        // The pool stays open for the next scenario
         if (dbService != null) {
             try {
                 dbService.close();
-                logger.info("Database connection closed successfully");
-            } catch (Exception e) {
-                logger.error("Error closing database connection", e);
-            }
-        }
-        
-        // Close SFTP service
-        if (fileTransferService != null) {
-            try {
-                fileTransferService.close();
-                logger.info("SFTP connection closed successfully");
             } catch (Exception e) {
-                logger.error("Error closing SFTP connection", e);
+                logger.error("Error releasing database service", e);
             }
+            dbService = null;
         }
         
-        // Ensure the DataSource is also closed
-        DatabaseConfig.closeDataSource();
+        // The shared SFTP session stays connected
+        fileTransferService = null;
     }
 
     // Common configuration for Karate tests
@@ -5,14 +5,12 @@ import com.utils.LoggerUtil;
 
 import org.slf4j.Logger;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.AfterAll;
 
 public class DbSelectUsersStep {
     private static final Logger logger = LoggerUtil.getLogger(DbSelectUsersStep.class);
@@ -20,12 +18,9 @@ public class DbSelectUsersStep {
 
     @BeforeAll
     public static void setUp() {
-        try {
-            dbQueryService = new DbQueryService();
-            logger.info("DB connection setup successfully");
-        } catch (SQLException e) {
-            logger.error("Error setting up DB connection", e);
-        }
+        // Connections are borrowed from the shared pool per query, so there is nothing to tear down here
+        dbQueryService = new DbQueryService();
+        logger.info("DB query service setup successfully");
     }
 
     // This method fetches all users from the database and returns them as a List of
@@ -36,29 +31,16 @@ public class DbSelectUsersStep {
             throw new IllegalStateException("DB connection not initialized");
         }
         try {
-            ResultSet rs = dbQueryService.executeQuery("SELECT_ALL_USERS");
-            List<Map<String, Object>> resultList = new ArrayList<>();
-
-            while (rs.next()) {
+            return dbQueryService.executeQuery("SELECT_ALL_USERS", (rs, rowNum) -> {
                 Map<String, Object> row = new HashMap<>();
                 row.put("id", rs.getInt("id"));
                 row.put("username", rs.getString("username"));
                 row.put("email", rs.getString("email"));
-                resultList.add(row);
-            }
-            return resultList;
+                return row;
+            });
         } catch (SQLException e) {
             logger.error("Error selecting users from the database", e);
             return Collections.emptyList();
         }
     }
-
-    @AfterAll
-    public static void tearDown() {
-        try {
-            dbQueryService.closeConnection();
-        } catch (SQLException e) {
-            logger.error("Error closing database connection", e);
-        }
-    }
 }
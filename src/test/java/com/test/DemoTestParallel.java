@@ -3,6 +3,7 @@ import com.intuit.karate.Results;
 import com.intuit.karate.Runner;
 import com.intuit.karate.core.ScenarioResult;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -13,17 +14,28 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import com.utils.SharedMemoryUtil;
+import com.config.DatabaseConfig;
 
 public class DemoTestParallel {
 
     private static final String TEST_RUN_KEY = "12345"; // Replace with actual testRunKey
 
+    @BeforeAll
+    static void warmUp() {
+        TestSetupHelper.warmUpResources();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestSetupHelper.tearDownAllResources();
+    }
+
     @Test
     void testParallel() {
         Results results = Runner.path("classpath:demo")
                 .outputCucumberJson(true)
                 .karateEnv("demo")
-                .parallel(5);
+                .parallel(DatabaseConfig.karateThreads());
 
         generateReport(results.getReportDir());
 
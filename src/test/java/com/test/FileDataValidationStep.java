@@ -1,16 +1,20 @@
 package com.test;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.db.CachingDbService;
 import com.db.DbService;
 import com.db.DbServiceImpl;
+import com.utils.GzipStreams;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -22,84 +26,147 @@ import java.util.stream.Collectors;
 
 public class FileDataValidationStep {
     private static final Logger logger = LoggerFactory.getLogger(FileDataValidationStep.class);
-    private static final DbService dbService = new DbServiceImpl();
+    private static final DbService dbService = CachingDbService.wrapIfEnabled(new DbServiceImpl());
     private static final String DELIMITER = ",";
     private static final String DETAIL_RECORD_C = "C";
     private static final String DETAIL_RECORD_D = "D";
 
     public static List<Map<String, String>> parseFixedLengthFile(String filePath, List<Map<String, Object>> layout) {
-        try {
-            List<String> lines = FileUtils.readLines(new File(filePath), "UTF-8");
-            List<Map<String, String>> records = new ArrayList<>();
-
-            for (String line : lines) {
-                Map<String, String> record = new HashMap<>();
-                int position = 0;
-
-                for (Map<String, Object> field : layout) {
-                    String fieldName = (String) field.get("name");
-                    int length = ((Number) field.get("length")).intValue();
-                    String value = line.substring(position, Math.min(position + length, line.length())).trim();
-                    record.put(fieldName, value);
-                    position += length;
-                }
-                records.add(record);
-            }
-            return records;
+        try (BufferedReader reader = openLocalReader(filePath)) {
+            return parseFixedLength(reader, layout);
         } catch (Exception e) {
             logger.error("Error parsing fixed length file: {}", filePath, e);
             throw new RuntimeException("Failed to parse fixed length file", e);
         }
     }
 
+    // Parses straight off the SFTP stream, so validation runs while the file is still arriving
+    public static List<Map<String, String>> parseRemoteFixedLengthFile(String remoteFilePath,
+            List<Map<String, Object>> layout) {
+        try (BufferedReader reader = openRemoteReader(remoteFilePath)) {
+            return parseFixedLength(reader, layout);
+        } catch (Exception e) {
+            logger.error("Error parsing remote fixed length file: {}", remoteFilePath, e);
+            throw new RuntimeException("Failed to parse fixed length file", e);
+        }
+    }
+
+    private static List<Map<String, String>> parseFixedLength(BufferedReader reader,
+            List<Map<String, Object>> layout) throws IOException {
+        List<Map<String, String>> records = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Map<String, String> record = new HashMap<>();
+            int position = 0;
+
+            for (Map<String, Object> field : layout) {
+                String fieldName = (String) field.get("name");
+                int length = ((Number) field.get("length")).intValue();
+                String value = line.substring(position, Math.min(position + length, line.length())).trim();
+                record.put(fieldName, value);
+                position += length;
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
     public static List<Map<String, String>> parseCSVFile(String filePath,
             List<Map<String, Object>> cLayout,
             List<Map<String, Object>> dLayout) {
-        List<Map<String, String>> records = new ArrayList<>();
-        List<String> allLines = new ArrayList<>();
+        BufferedReader reader;
+        try {
+            reader = openLocalReader(filePath);
+        } catch (Exception e) {
+            logger.error("Error reading CSV file: {}", filePath, e);
+            throw new RuntimeException("Failed to read CSV file: " + e.getMessage(), e);
+        }
+        return parseCSV(reader, filePath, cLayout, dLayout);
+    }
 
-        // First read all lines from the file
-        try (BufferedReader reader = new BufferedReader(
-                new FileReader(new File(filePath), StandardCharsets.UTF_8))) {
+    public static List<Map<String, String>> parseRemoteCSVFile(String remoteFilePath,
+            List<Map<String, Object>> cLayout,
+            List<Map<String, Object>> dLayout) {
+        BufferedReader reader;
+        try {
+            reader = openRemoteReader(remoteFilePath);
+        } catch (Exception e) {
+            logger.error("Error reading remote CSV file: {}", remoteFilePath, e);
+            throw new RuntimeException("Failed to read CSV file: " + e.getMessage(), e);
+        }
+        return parseCSV(reader, remoteFilePath, cLayout, dLayout);
+    }
 
+    // Single pass: each detail line is parsed once the next line shows it is not the trailer
+    private static List<Map<String, String>> parseCSV(BufferedReader reader, String source,
+            List<Map<String, Object>> cLayout,
+            List<Map<String, Object>> dLayout) {
+        List<Map<String, String>> records = new ArrayList<>();
+        String pending = null;
+        int lineCount = 0;
+
+        try (reader) {
             String line;
             while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    allLines.add(line);
+                if (line.trim().isEmpty()) {
+                    continue;
                 }
+                lineCount++;
+                // Line 1 is the header; the previous line is a detail record now that another follows it
+                if (pending != null) {
+                    processCSVLine(pending, lineCount - 1, records, cLayout, dLayout);
+                }
+                pending = lineCount > 1 ? line : null;
             }
-        } catch (Exception e) {
-            logger.error("Error reading CSV file: {}", filePath, e);
+        } catch (IOException e) {
+            logger.error("Error reading CSV file: {}", source, e);
             throw new RuntimeException("Failed to read CSV file: " + e.getMessage(), e);
         }
 
         // Validate minimum file structure
-        if (allLines.size() < 3) { // At least header, one detail record, and trailer
+        if (lineCount < 3) { // At least header, one detail record, and trailer
             throw new RuntimeException("File must contain at least 3 lines (header, detail, trailer)");
         }
 
-        // Process all lines except header and trailer
-        for (int i = 1; i < allLines.size() - 1; i++) {
-            String line = allLines.get(i);
-            try {
-                String[] fields = line.split(DELIMITER, -1);
-                if (fields.length == 0) {
-                    continue;
-                }
+        return records;
+    }
 
-                String recordType = fields[0].trim();
-                switch (recordType) {
-                    case DETAIL_RECORD_C -> records.add(parseRecord(fields, cLayout));
-                    case DETAIL_RECORD_D -> records.add(parseRecord(fields, dLayout));
-                    default -> logger.warn("Unknown record type '{}' at line {}, skipping", recordType, i + 1);
-                }
-            } catch (Exception e) {
-                logger.error("Error processing line {}: {}", i + 1, e.getMessage());
-                throw new RuntimeException("Failed to process line " + (i + 1), e);
+    private static void processCSVLine(String line, int lineNumber, List<Map<String, String>> records,
+            List<Map<String, Object>> cLayout,
+            List<Map<String, Object>> dLayout) {
+        try {
+            String[] fields = line.split(DELIMITER, -1);
+            if (fields.length == 0) {
+                return;
             }
+
+            String recordType = fields[0].trim();
+            switch (recordType) {
+                case DETAIL_RECORD_C -> records.add(parseRecord(fields, cLayout));
+                case DETAIL_RECORD_D -> records.add(parseRecord(fields, dLayout));
+                default -> logger.warn("Unknown record type '{}' at line {}, skipping", recordType, lineNumber);
+            }
+        } catch (Exception e) {
+            logger.error("Error processing line {}: {}", lineNumber, e.getMessage());
+            throw new RuntimeException("Failed to process line " + lineNumber, e);
         }
+    }
 
-        return records;
+    // Both readers decompress gzip feeds transparently
+    private static BufferedReader openLocalReader(String filePath) throws IOException {
+        InputStream in = GzipStreams.decompressIfGzipped(Files.newInputStream(Paths.get(filePath)));
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static BufferedReader openRemoteReader(String remoteFilePath) throws IOException {
+        InputStream in = TestSetupHelper.getFileTransferService().openRemoteFile(remoteFilePath);
+        try {
+            return new BufferedReader(new InputStreamReader(GzipStreams.decompressIfGzipped(in), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
     }
 
     private static Map<String, String> parseRecord(String[] fields, List<Map<String, Object>> layout) {
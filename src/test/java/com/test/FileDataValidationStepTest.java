@@ -0,0 +1,67 @@
+package com.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileDataValidationStepTest {
+    private static final List<Map<String, Object>> C_LAYOUT = List.of(
+            Map.of("name", "accountId", "length", 10),
+            Map.of("name", "name", "length", 5));
+    private static final List<Map<String, Object>> D_LAYOUT = List.of(
+            Map.of("name", "accountId", "length", 10),
+            Map.of("name", "amount", "length", 12));
+
+    // The trailer is written as a D record on purpose: only its position marks it as the trailer
+    private static final String FEED = String.join("\n",
+            "H,20240101,accounts",
+            "C,1001,Alice Smith",
+            "D,1001,250.00",
+            "",
+            "C,1002,Bob",
+            "D,3,999.99") + "\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void headerSkippedAndTrailerHeldBack() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("accounts_20240101.csv"), FEED);
+
+        List<Map<String, String>> records = FileDataValidationStep.parseCSVFile(file.toString(), C_LAYOUT, D_LAYOUT);
+
+        assertEquals(3, records.size());
+        assertEquals(Map.of("recordType", "C", "accountId", "1001", "name", "Alice"), records.get(0));
+        assertEquals(Map.of("recordType", "D", "accountId", "1001", "amount", "250.00"), records.get(1));
+        assertEquals(Map.of("recordType", "C", "accountId", "1002", "name", "Bob"), records.get(2));
+    }
+
+    @Test
+    public void gzipFeedIsParsedTheSameWay() throws IOException {
+        Path file = tempDir.resolve("accounts_20240101.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(FEED.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(3, FileDataValidationStep.parseCSVFile(file.toString(), C_LAYOUT, D_LAYOUT).size());
+    }
+
+    @Test
+    public void fileWithoutDetailLinesIsRejected() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("short.csv"), "H,20240101\n\nT,0\n");
+
+        assertThrows(RuntimeException.class,
+                () -> FileDataValidationStep.parseCSVFile(file.toString(), C_LAYOUT, D_LAYOUT));
+    }
+}
@@ -2,6 +2,7 @@ package com.test;
 
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,23 +12,32 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 
+import com.config.EnvProfile;
 import com.db.DbService;
+import com.transfer.BatchTransferResult;
 import com.transfer.FileTransferService;
+import com.transfer.TransferResult;
+import com.utils.ArrivalWatcher;
 
+@RequiresResources({ScenarioResource.DATABASE, ScenarioResource.SFTP})
 public class FileTransferSteps extends BaseKarateTest {
     private static final Logger logger = LoggerFactory.getLogger(FileTransferSteps.class);
 
-    // No need for @BeforeEach and @AfterEach here since BaseKarateTest handles it
-    // Instance services for this class
-    private DbService dbService;
-    private FileTransferService fileTransferService;
+    // No need for @BeforeEach and @AfterEach here since BaseKarateTest handles it.
+    // Under JUnit the inherited services are set per @RequiresResources; steps called straight
+    // from a feature find them unset and use the suite-wide services instead
+    private DbService db() {
+        return dbService != null ? dbService : TestSetupHelper.getDbService();
+    }
+
+    private FileTransferService transfers() {
+        return fileTransferService != null ? fileTransferService : TestSetupHelper.getFileTransferService();
+    }
 
-    // You can directly access the dbService and fileTransferService initialized in BaseKarateTest
-    
     public boolean checkFileExistsInDatabase(String fileName) {
         logger.info("Checking if file exists in database: {}", fileName);
         try {
-            List<Map<String, Object>> result = dbService.executeQuery(
+            List<Map<String, Object>> result = db().executeQuery(
                     "SELECT_FILE_BY_NAME",
                     fileName);
             return !result.isEmpty();
@@ -37,10 +47,22 @@ public class FileTransferSteps extends BaseKarateTest {
         }
     }
 
+    // Waits for the file's row to appear; with DB_FILE_NOTIFY_CHANNEL set, a NOTIFY wakes the check early
+    public boolean waitForFileInDatabase(String fileName, long timeoutMillis) {
+        logger.info("Waiting up to {} ms for file in database: {}", timeoutMillis, fileName);
+        return ArrivalWatcher.await(() -> checkFileExistsInDatabase(fileName), timeoutMillis,
+                EnvProfile.get("DB_FILE_NOTIFY_CHANNEL"));
+    }
+
+    public boolean waitForRemoteFile(String remoteFilePath, long timeoutMillis) {
+        logger.info("Waiting up to {} ms for remote file: {}", timeoutMillis, remoteFilePath);
+        return ArrivalWatcher.await(() -> transfers().exists(remoteFilePath), timeoutMillis);
+    }
+
     public void deleteFileRecord(String fileName) {
         logger.info("Deleting file record from database: {}", fileName);
         try {
-            int result = dbService.executeUpdate(
+            int result = db().executeUpdate(
                     "DELETE_FILE_RECORD",
                     fileName);
             if (result == 0) {
@@ -62,11 +84,11 @@ public class FileTransferSteps extends BaseKarateTest {
             }
 
             // Transfer file to remote directory using the shared connection
-            boolean transferred = fileTransferService.uploadFile(path, "incoming");
+            boolean transferred = transfers().uploadFile(path, "incoming");
 
             if (transferred) {
                 // Record successful transfer in database
-                dbService.executeUpdate(
+                db().executeUpdate(
                         "INSERT_FILE_RECORD",
                         path.getFileName().toString(),
                         "TRANSFERRED",
@@ -87,11 +109,54 @@ public class FileTransferSteps extends BaseKarateTest {
         return result;
     }
 
+    // Uploads a whole drop of files in parallel and records each successful transfer
+    public Map<String, Object> transferFilesToSecureSystem(List<String> filePaths) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            List<Path> paths = new ArrayList<>();
+            for (String filePath : filePaths) {
+                Path path = Paths.get(filePath);
+                if (!path.toFile().exists()) {
+                    throw new IllegalArgumentException("File not found: " + filePath);
+                }
+                paths.add(path);
+            }
+
+            BatchTransferResult batch = transfers().uploadFiles(paths, "incoming");
+            List<String> failedFiles = new ArrayList<>();
+            for (TransferResult transfer : batch.results()) {
+                String fileName = Paths.get(transfer.source()).getFileName().toString();
+                if (transfer.success()) {
+                    db().executeUpdate(
+                            "INSERT_FILE_RECORD",
+                            fileName,
+                            "TRANSFERRED",
+                            LocalDateTime.now().toString());
+                } else {
+                    failedFiles.add(fileName);
+                }
+            }
+
+            result.put("success", batch.allSucceeded());
+            result.put("transferred", batch.succeeded());
+            result.put("failedFiles", failedFiles);
+            result.put("bytesPerSecond", batch.bytesPerSecond());
+            result.put("message", batch.succeeded() + " of " + paths.size() + " files transferred");
+        } catch (Exception e) {
+            logger.error("Error transferring files: {}", filePaths, e);
+            result.put("success", false);
+            result.put("message", "Error: " + e.getMessage());
+        }
+
+        return result;
+    }
+
     public boolean cleanupTransferredFiles(String fileName) {
         logger.info("Cleaning up transferred files");
         try {
             // Delete from secure system using the shared connection
-            return fileTransferService.deleteFile(fileName);
+            return transfers().deleteFile(fileName);
         } catch (Exception e) {
             logger.error("Error during cleanup", e);
             throw new RuntimeException("Failed to cleanup transferred files", e);
@@ -0,0 +1,15 @@
+package com.test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Declares which external resources a BaseKarateTest subclass needs; undeclared ones are not opened
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RequiresResources {
+    ScenarioResource[] value();
+}
@@ -0,0 +1,46 @@
+package com.test;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * External resources a scenario can declare it needs, by Karate tag (@db, @sftp) or through
+ * {@link RequiresResources} on a JUnit test class. Declared resources are initialized before the
+ * scenario starts; anything else is only created if a step actually uses it.
+ */
+public enum ScenarioResource {
+    DATABASE("db"),
+    SFTP("sftp");
+
+    private final String tag;
+
+    ScenarioResource(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    // Accepts tags with or without the leading '@'
+    public static Set<ScenarioResource> fromTags(Collection<?> tags) {
+        Set<ScenarioResource> resources = EnumSet.noneOf(ScenarioResource.class);
+        if (tags == null) {
+            return resources;
+        }
+        for (Object tag : tags) {
+            String name = String.valueOf(tag).toLowerCase(Locale.ROOT);
+            if (name.startsWith("@")) {
+                name = name.substring(1);
+            }
+            for (ScenarioResource resource : values()) {
+                if (resource.tag.equals(name)) {
+                    resources.add(resource);
+                }
+            }
+        }
+        return resources;
+    }
+}
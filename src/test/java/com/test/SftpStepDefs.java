@@ -2,60 +2,75 @@ package com.test;
 
 import org.slf4j.Logger;
 
-import com.file.SftpConnection;
-import com.file.SftpService;
+import com.config.SftpEnvironmentConfig;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+import com.transfer.FileTransferException;
+import com.transfer.FileTransferService;
+import com.transfer.LocalSftpServer;
+import com.transfer.MinaSessions;
+import com.transfer.SftpService;
 import com.utils.LoggerUtil;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Paths;
 
 public class SftpStepDefs {
 
     private static final Logger logger = LoggerUtil.getLogger(SftpStepDefs.class);
-    private static SftpConnection sftpConnection;
-    private static SftpService sftpService;
+    // Remote paths are used as given, on the REMOTE_* host (see SftpEnvironmentConfig.loadStepDefinitionConfig)
+    private static final SharedResource<FileTransferService> sftpService = SuiteLifecycle.register(
+            new SharedResource<FileTransferService>("step definition SFTP service",
+                    () -> SftpService.create(SftpEnvironmentConfig.loadStepDefinitionConfig()),
+                    SftpStepDefs::closeQuietly)
+                    .dependsOn(MinaSessions.sharedResource(), LocalSftpServer.sharedResource()));
 
     // This method will be run before all tests in the feature file
     @BeforeAll
-    public static void setupSftpConnection() throws IOException, NoSuchAlgorithmException {
-        sftpConnection = new SftpConnection();
-        sftpService = new SftpService(sftpConnection);
-        sftpConnection.connect();
+    public static void setupSftpConnection() {
+        sftpService.get();
         logger.info("SFTP connection established.");
     }
 
     // This method will be run after all tests in the feature file
     @AfterAll
     public static void disconnectSftpConnection() {
-        if (sftpConnection != null) {
-            sftpConnection.disconnect();
-            logger.info("SFTP connection disconnected.");
-        }
+        sftpService.close();
+        logger.info("SFTP connection disconnected.");
     }
 
     // Remove existing file from remote directory if it exists
     @Test
-    public void removeFileIfExists(String remoteFilePath) throws IOException {
-        try {
-            sftpService.removeFile(remoteFilePath);
-        } catch (IOException e) {
-            logger.error("Error removing file: " + remoteFilePath, e);
-            throw new IOException("Failed to remove file: " + remoteFilePath, e);
+    public void removeFileIfExists(String remoteFilePath) {
+        FileTransferService service = sftpService.get();
+        if (service.exists(remoteFilePath)) {
+            service.deleteFile(remoteFilePath);
+            logger.info("Removed existing file: {}", remoteFilePath);
         }
     }
 
-    // Transfer file from local to remote
+    // Transfer file from local to remote; the remote path names the target file
     @Test
-    public void transferFile(String localFilePath, String remoteFilePath) throws IOException {
+    public void transferFile(String localFilePath, String remoteFilePath) {
+        int separator = remoteFilePath.lastIndexOf('/');
+        String remoteDirectory = separator > 0 ? remoteFilePath.substring(0, separator) : separator == 0 ? "" : ".";
         try {
-            sftpService.transferFile(localFilePath, remoteFilePath);
-        } catch (IOException e) {
+            sftpService.get().uploadFile(Paths.get(localFilePath), remoteDirectory,
+                    remoteFilePath.substring(separator + 1));
+        } catch (FileTransferException e) {
             logger.error("Error transferring file from " + localFilePath + " to " + remoteFilePath, e);
-            throw new IOException("Failed to transfer file", e);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(FileTransferService service) {
+        try {
+            service.close();
+        } catch (Exception e) {
+            logger.warn("Error closing step definition SFTP service: {}", e.getMessage());
         }
     }
 }
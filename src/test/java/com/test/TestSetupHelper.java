@@ -1,87 +1,88 @@
 package com.test;
 
 import com.config.DatabaseConfig;
-import com.config.SftpConfig;
-import com.config.SftpEnvironmentConfig;
+import com.config.EnvProfile;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+import com.db.CachingDbService;
+import com.db.ConnectionPoolWarmer;
 import com.db.DbService;
 import com.db.DbServiceImpl;
+import com.db.QueryResultCache;
+import com.db.ScenarioTransaction;
 import com.transfer.FileTransferService;
-import com.transfer.SecureFileTransfer;
+import com.transfer.SharedFileTransfer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 public class TestSetupHelper {
     private static final Logger logger = LoggerFactory.getLogger(TestSetupHelper.class);
+    private static final String COMMIT_TAG = "db-commit";
+    private static final String TEST_FILE_DIRECTORY = "incoming";
+    private static final String TEST_FILE_GLOB = "{test_*,*_test_*}";
+    private static final boolean SUITE_CLEANUP = "suite".equalsIgnoreCase(EnvProfile.get("SFTP_CLEANUP"));
     
-    // Static service instances with thread safety
-    private static final Object dbLock = new Object();
-    private static final Object ftpLock = new Object();
-    private static DbService dbServiceInstance;
-    private static FileTransferService fileTransferServiceInstance;
+    // Lazy providers: each resource is created on first use, so a scenario that never touches
+    // the database or SFTP never waits for (or fails on) their setup
+    private static final SharedResource<DbService> dbService = new SharedResource<>("scenario database service",
+            () -> CachingDbService.wrapIfEnabled(new DbServiceImpl()), TestSetupHelper::closeQuietly);
     
     // Getters for the services
     public static DbService getDbService() {
-        if (dbServiceInstance == null) {
-            throw new IllegalStateException("Database service has not been initialized.");
+        try {
+            return dbService.get();
+        } catch (Exception e) {
+            logger.error("Failed to initialize database connection: {}", e.getMessage());
+            throw new RuntimeException("Could not establish database connection", e);
         }
-        return dbServiceInstance;
     }
     
     public static FileTransferService getFileTransferService() {
-        if (fileTransferServiceInstance == null) {
-            throw new IllegalStateException("File transfer service has not been initialized.");
+        try {
+            return SharedFileTransfer.get();
+        } catch (Exception e) {
+            logger.error("Failed to initialize SFTP connection: {}", e.getMessage());
+            throw new RuntimeException("Could not establish SFTP connection", e);
         }
-        return fileTransferServiceInstance;
-    }
-    
-    // Called by Karate hook before each scenario
-    public static void setupBeforeScenario() {
-        logger.info("Setting up resources for scenario");
-        
-        // Initialize database service
-        initDbService();
-        
-        // Initialize SFTP service
-        initFileTransferService();
-        
-        logger.info("Setup completed for scenario");
     }
     
-    private static void initDbService() {
+    // Called once by the suite runner before any scenario starts, so the first scenario
+    // finds a full, validated pool instead of paying for connection setup
+    public static void warmUpResources() {
         try {
-            synchronized (dbLock) {
-                logger.info("Initializing database connection");
-                if (dbServiceInstance == null) {
-                    dbServiceInstance = new DbServiceImpl();
-                    logger.info("Database connection established successfully");
-                } else {
-                    logger.info("Reusing existing database connection");
-                }
-            }
+            ConnectionPoolWarmer.warmUpOnce();
         } catch (Exception e) {
-            logger.error("Failed to initialize database connection: {}", e.getMessage());
-            throw new RuntimeException("Could not establish database connection", e);
+            // Warm-up is an optimization; scenarios still connect lazily if it fails
+            logger.warn("Connection pool warm-up failed: {}", e.getMessage());
         }
     }
     
-    private static void initFileTransferService() {
-        try {
-            synchronized (ftpLock) {
-                logger.info("Initializing SFTP connection");
-                if (fileTransferServiceInstance == null) {
-                    SftpConfig config = SftpEnvironmentConfig.loadConfig();
-                    fileTransferServiceInstance = new SecureFileTransfer(config);
-                    logger.info("SFTP connection established successfully");
-                } else {
-                    logger.info("Reusing existing SFTP connection");
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Failed to initialize SFTP connection: {}", e.getMessage());
-            throw new RuntimeException("Could not establish SFTP connection", e);
+    // Called by Karate hook before each scenario with karate.tags. Only resources the scenario
+    // declares (@db, @sftp) are initialized up front; everything else stays deferred.
+    public static void setupBeforeScenario(List<String> tags) {
+        // @db-commit scenarios share rows with the system under test, so they keep autocommit and
+        // the template schema that system reads and writes
+        boolean commits = tags != null && tags.contains(COMMIT_TAG);
+        // With DB_WORKER_ISOLATION=schema the scenario holds a worker schema until cleanupAfterScenario
+        if (!commits) {
+            DatabaseConfig.leaseWorkerSchema();
+        }
+        // With DB_SCENARIO_ISOLATION=rollback, DB work is rolled back at the end instead of deleted
+        if (ScenarioTransaction.isEnabled() && !commits) {
+            ScenarioTransaction.begin();
+        }
+        initializeResources(ScenarioResource.fromTags(tags));
+    }
+    
+    public static void initializeResources(Set<ScenarioResource> resources) {
+        if (resources.contains(ScenarioResource.DATABASE)) {
+            getDbService();
+        }
+        if (resources.contains(ScenarioResource.SFTP)) {
+            getFileTransferService();
         }
     }
     
@@ -90,11 +91,14 @@ public class TestSetupHelper {
         logger.info("Cleaning up resources after scenario");
         
         try {
-            // Reset any scenario-specific data in the database
-            if (dbServiceInstance != null) {
+            // Reset any scenario-specific data in the database - a rollback replaces the delete
+            DbService db = dbService.getIfInitialized();
+            if (ScenarioTransaction.end()) {
+                logger.info("Database state reset by scenario rollback");
+            } else if (db != null) {
                 logger.info("Resetting database state for next scenario");
                 try {
-                    dbServiceInstance.executeUpdate("DELETE_TEST_DATA");
+                    db.executeUpdate("DELETE_TEST_DATA");
                     // Add more specific cleanup queries as needed
                 } catch (Exception e) {
                     logger.warn("Error during database cleanup: {}", e.getMessage());
@@ -102,16 +106,19 @@ public class TestSetupHelper {
             }
             
             // Clean up any test files on the SFTP server
-            if (fileTransferServiceInstance != null) {
+            // With SFTP_CLEANUP=suite uploads are swept once when the SFTP session closes instead
+            FileTransferService ftp = SharedFileTransfer.getIfInitialized();
+            if (ftp != null && !SUITE_CLEANUP) {
                 logger.info("Cleaning up test files from SFTP server");
                 try {
                     // Delete test files from common test directories
-                    List<String> testFiles = fileTransferServiceInstance.listFiles("incoming");
-                    for (String file : testFiles) {
-                        if (file.startsWith("test_") || file.contains("_test_")) {
-                            logger.info("Deleting test file: {}", file);
-                            fileTransferServiceInstance.deleteFile(file);
-                        }
+                    // Served from the listing cache while nothing in the directory changed
+                    List<String> testFiles = ftp.listFiles(TEST_FILE_DIRECTORY, TEST_FILE_GLOB).stream()
+                            .map(file -> TEST_FILE_DIRECTORY + "/" + file)
+                            .toList();
+                    if (!testFiles.isEmpty()) {
+                        logger.info("Deleting {} test files", testFiles.size());
+                        ftp.deleteFiles(testFiles);
                     }
                 } catch (Exception e) {
                     logger.warn("Error during SFTP cleanup: {}", e.getMessage());
@@ -119,58 +126,35 @@ public class TestSetupHelper {
             }
         } catch (Exception e) {
             logger.error("Error during scenario cleanup", e);
+        } finally {
+            DatabaseConfig.releaseWorkerSchema();
         }
         
         logger.info("Scenario cleanup completed");
     }
     
-    // Called when all tests are complete (needs to be called from a JUnit @AfterAll method)
+    // Called from the suite runner's @AfterAll once all scenarios are done; anything still
+    // holding a service afterwards reopens the pool or session on its next call
     public static void tearDownAllResources() {
         logger.info("Tearing down all test resources");
         
-        // Close database service
-        synchronized (dbLock) {
-            if (dbServiceInstance != null) {
-                try {
-                    dbServiceInstance.close();
-                    logger.info("Database connection closed successfully");
-                    dbServiceInstance = null;
-                } catch (Exception e) {
-                    logger.error("Error closing database connection", e);
-                }
-            }
-        }
+        dbService.close();
         
-        // Close SFTP service
-        synchronized (ftpLock) {
-            if (fileTransferServiceInstance != null) {
-                try {
-                    fileTransferServiceInstance.close();
-                    logger.info("SFTP connection closed successfully");
-                    fileTransferServiceInstance = null;
-                } catch (Exception e) {
-                    logger.error("Error closing SFTP connection", e);
-                }
-            }
+        if (QueryResultCache.shared().isEnabled()) {
+            QueryResultCache.shared().logStats();
         }
-        
-        // Ensure the DataSource is also closed
-        DatabaseConfig.closeDataSource();
+
+        // Close the pool and SFTP session now rather than waiting for the JVM shutdown hook
+        SuiteLifecycle.closeAll();
         
         logger.info("All resources have been released");
     }
 
-    /**
-     * Save the test case key to shared memory
-     */
-    private void saveTestCaseKey() {
+    private static void closeQuietly(AutoCloseable resource) {
         try {
-            // Write the test case key to shared memory
-            SharedMemoryUtil.writeValue(TEST_CASE_KEY_NAME, testCaseKey);
-            System.out.println("TestCaseKey saved to shared memory: " + testCaseKey);
-        } catch (IOException e) {
-            System.err.println("Failed to save TestCaseKey to shared memory: " + e.getMessage());
-            e.printStackTrace();
+            resource.close();
+        } catch (Exception e) {
+            logger.error("Error closing {}", resource.getClass().getSimpleName(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.db.CachingDbService;
 import com.db.DbService;
 import com.db.DbServiceImpl;
 
@@ -14,7 +15,7 @@ public class UserSteps {
 
     public static List<Map<String, Object>> getAllUsers() {
         logger.info("Fetching all users from database");
-        try (DbService dbService = new DbServiceImpl()) {
+        try (DbService dbService = CachingDbService.wrapIfEnabled(new DbServiceImpl())) {
             return dbService.executeQuery("SELECT_ALL_USERS");
         } catch (Exception e) {
             logger.error("Error while fetching all users", e);
@@ -24,7 +25,7 @@ public class UserSteps {
 
     public static List<Map<String, Object>> getUserById(Long userId) {
         logger.info("Fetching user with ID: {}", userId);
-        try (DbService dbService = new DbServiceImpl()) {
+        try (DbService dbService = CachingDbService.wrapIfEnabled(new DbServiceImpl())) {
             return dbService.executeQuery("SELECT_USER_BY_ID", userId);
         } catch (Exception e) {
             logger.error("Error while fetching user by ID: {}", userId, e);
@@ -34,7 +35,7 @@ public class UserSteps {
 
     public static int createUser(String username, String email) {
         logger.info("Creating new user with username: {}", username);
-        try (DbService dbService = new DbServiceImpl()) {
+        try (DbService dbService = CachingDbService.wrapIfEnabled(new DbServiceImpl())) {
             return dbService.executeUpdate("INSERT_USER", username, email);
         } catch (Exception e) {
             logger.error("Error while creating user: {}", username, e);
@@ -1,3 +1,4 @@
+@db @sftp @db-commit
 Feature: openFX File Transfer
 
   Background:
@@ -18,7 +19,7 @@ Feature: openFX File Transfer
     * match transferResult.message == 'File transferred successfully'
     Given path '/f2'
     Then status = 200
-    * def fileLoaded = retryUntilTrue(() => FileTransferSteps.checkFileExistsInDatabase('<fileName>'), 5000, 500)
+    * def fileLoaded = FileTransferSteps.waitForFileInDatabase('<fileName>', 5000)
     * match fileLoaded == true
 
     Examples:
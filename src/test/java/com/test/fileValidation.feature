@@ -1,3 +1,4 @@
+@db
 Feature: Fixed Length File Data Validation
 
   Background:
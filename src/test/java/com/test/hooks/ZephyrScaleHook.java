@@ -3,6 +3,7 @@ package com.test.hooks;
 import com.intuit.karate.Results;
 import com.intuit.karate.core.Scenario;
 import com.intuit.karate.core.ScenarioResult;
+import com.test.zephyr.ZephyrResultPublisher;
 import com.test.zephyr.ZephyrScaleClient;
 import com.test.zephyr.ZephyrScaleClient.TestResult;
 import com.intuit.karate.core.Tag;
@@ -60,7 +61,8 @@ public class ZephyrScaleHook {
                     System.getProperty("user.name"),
                     collectEvidences(scenarioResult)
                 );
-                zephyrClient.publishTestResult(testCaseKey, result);
+                // Published by the suite-wide background publisher, flushed when the suite's resources close
+                ZephyrResultPublisher.submit(zephyrClient, testCaseKey, result);
             }
         } catch (Exception e) {
             logger.error("Error in Zephyr Scale after scenario hook", e);
@@ -0,0 +1,187 @@
+package com.test.zephyr;
+
+import com.config.EnvProfile;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+import com.test.zephyr.ZephyrScaleClient.TestResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes test results to Zephyr Scale from one background thread shared by the whole suite, so a
+ * scenario only pays for putting its result on a bounded queue. Queued results go out together: once
+ * one arrives the publisher gathers up to ZEPHYR_BATCH_SIZE, waiting at most ZEPHYR_BATCH_MAX_WAIT_MS,
+ * and sends them as one automation upload per client, retried once on failure. The publisher starts with the first result and is closed by
+ * {@link SuiteLifecycle}, which flushes the queue for up to ZEPHYR_FLUSH_TIMEOUT_MS; results offered
+ * while the queue is full are dropped with a warning rather than blocking a worker.
+ */
+public final class ZephyrResultPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ZephyrResultPublisher.class);
+
+    private static final int QUEUE_CAPACITY = EnvProfile.getInt("ZEPHYR_QUEUE_CAPACITY", 1000);
+    private static final int BATCH_SIZE = EnvProfile.getInt("ZEPHYR_BATCH_SIZE", 50);
+    private static final long BATCH_MAX_WAIT_MILLIS = EnvProfile.getLong("ZEPHYR_BATCH_MAX_WAIT_MS", 2000);
+    private static final long FLUSH_TIMEOUT_MILLIS = EnvProfile.getLong("ZEPHYR_FLUSH_TIMEOUT_MS", 30000);
+
+    private static final SharedResource<ZephyrResultPublisher> shared = SuiteLifecycle.register(
+            new SharedResource<>("Zephyr result publisher", ZephyrResultPublisher::new, ZephyrResultPublisher::close));
+
+    private final BlockingQueue<PendingResult> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Queued plus being published; zero means everything offered so far has been sent or given up on
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean running = true;
+    // Set while close() flushes, so a partial batch goes out without waiting for more results
+    private volatile boolean closing;
+
+    private ZephyrResultPublisher() {
+        this.worker = new Thread(this::drainLoop, "zephyr-publisher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Never blocks; returns false when the result had to be dropped
+    public static boolean submit(ZephyrScaleClient client, String testCaseKey, TestResult result) {
+        return shared.get().offer(client, testCaseKey, result);
+    }
+
+    private boolean offer(ZephyrScaleClient client, String testCaseKey, TestResult result) {
+        if (!running) {
+            logger.warn("Zephyr publisher closed, dropping result for {}", testCaseKey);
+            dropped.incrementAndGet();
+            return false;
+        }
+        outstanding.incrementAndGet();
+        if (!queue.offer(new PendingResult(client, testCaseKey, result))) {
+            outstanding.decrementAndGet();
+            dropped.incrementAndGet();
+            logger.warn("Zephyr result queue full ({}), dropping result for {}", QUEUE_CAPACITY, testCaseKey);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (outstanding) {
+            while (outstanding.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !worker.isAlive()) {
+                    return false;
+                }
+                try {
+                    outstanding.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void close() {
+        closing = true;
+        boolean flushed = flush(FLUSH_TIMEOUT_MILLIS);
+        running = false;
+        worker.interrupt();
+        logger.info("Zephyr results: {} published, {} failed, {} dropped{}", published.get(), failed.get(),
+                dropped.get() + (flushed ? 0 : outstanding.get()),
+                flushed ? "" : " (flush timed out after " + FLUSH_TIMEOUT_MILLIS + " ms)");
+    }
+
+    private void drainLoop() {
+        List<PendingResult> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                PendingResult first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                publish(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } finally {
+                if (!batch.isEmpty()) {
+                    completed(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingResult> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + BATCH_MAX_WAIT_MILLIS;
+        while (batch.size() < BATCH_SIZE) {
+            queue.drainTo(batch, BATCH_SIZE - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= BATCH_SIZE || closing || remaining <= 0) {
+                return;
+            }
+            PendingResult next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void publish(List<PendingResult> batch) throws InterruptedException {
+        Map<ZephyrScaleClient, List<Map.Entry<String, TestResult>>> byClient = new LinkedHashMap<>();
+        for (PendingResult pending : batch) {
+            byClient.computeIfAbsent(pending.client, c -> new ArrayList<>())
+                    .add(new AbstractMap.SimpleImmutableEntry<>(pending.testCaseKey, pending.result));
+        }
+        for (Map.Entry<ZephyrScaleClient, List<Map.Entry<String, TestResult>>> group : byClient.entrySet()) {
+            publish(group.getKey(), group.getValue());
+        }
+    }
+
+    private void publish(ZephyrScaleClient client, List<Map.Entry<String, TestResult>> results) throws InterruptedException {
+        String cycleName = "Automated Run - " + System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                client.publishTestResults(cycleName, results);
+                published.addAndGet(results.size());
+                return;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= 2) {
+                    failed.addAndGet(results.size());
+                    logger.error("Failed to publish {} Zephyr results: {}", results.size(), e.getMessage());
+                    return;
+                }
+                logger.warn("Zephyr publish of {} results failed ({}), retrying", results.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void completed(int count) {
+        synchronized (outstanding) {
+            outstanding.addAndGet(-count);
+            outstanding.notifyAll();
+        }
+    }
+
+    private record PendingResult(ZephyrScaleClient client, String testCaseKey, TestResult result) {
+    }
+}
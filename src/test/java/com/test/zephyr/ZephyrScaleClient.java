@@ -4,13 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class ZephyrScaleClient {
     private static final Logger logger = LoggerFactory.getLogger(ZephyrScaleClient.class);
@@ -77,6 +81,56 @@ public class ZephyrScaleClient {
         sendRequest("POST", "/testexecutions", testExecution);
     }
 
+    // Publish several results in one call, as an automation upload in Zephyr's custom format. The upload
+    // creates its own test cycle; environment and evidences are folded into each execution's comment
+    public void publishTestResults(String cycleName, List<Map.Entry<String, TestResult>> results) throws IOException, InterruptedException {
+        List<Map<String, Object>> executions = new ArrayList<>();
+        for (Map.Entry<String, TestResult> entry : results) {
+            TestResult result = entry.getValue();
+            StringBuilder comment = new StringBuilder(String.valueOf(result.getComment()))
+                    .append("\nEnvironment: ").append(result.getEnvironment())
+                    .append("\nExecuted by: ").append(result.getExecutedBy());
+            for (String evidence : result.getEvidences()) {
+                comment.append('\n').append(evidence);
+            }
+            Map<String, Object> execution = new HashMap<>();
+            execution.put("source", "karate");
+            execution.put("result", result.getStatus());
+            execution.put("comment", comment.toString());
+            execution.put("testCase", Map.of("key", entry.getKey()));
+            executions.add(execution);
+        }
+        Map<String, Object> report = new HashMap<>();
+        report.put("version", 1);
+        report.put("executions", executions);
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("results.json"));
+            out.write(objectMapper.writeValueAsBytes(report));
+            out.closeEntry();
+        }
+
+        Map<String, Object> testCycle = new HashMap<>();
+        testCycle.put("name", cycleName);
+        testCycle.put("description", "Automated test execution");
+
+        String boundary = "zephyr-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writePart(body, boundary, "file\"; filename=\"results.zip", "application/zip", zip.toByteArray());
+        writePart(body, boundary, "testCycle", "application/json", objectMapper.writeValueAsBytes(testCycle));
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(API_BASE_URL + "/automations/executions/custom?projectKey=" + projectKey
+                        + "&autoCreateTestCases=false"))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        send(request);
+    }
+
     // Create test cycle
     public String createTestCycle(String name, String description, List<String> testCaseKeys) throws IOException, InterruptedException {
         Map<String, Object> testCycle = new HashMap<>();
@@ -99,7 +153,10 @@ public class ZephyrScaleClient {
                 .header("Content-Type", "application/json")
                 .method(method, HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
+        return send(request);
+    }
 
+    private String send(HttpRequest request) throws IOException, InterruptedException {
         HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
         
         if (response.statusCode() >= 400) {
@@ -110,6 +167,15 @@ public class ZephyrScaleClient {
         return response.body();
     }
 
+    private static void writePart(ByteArrayOutputStream body, String boundary, String name, String contentType,
+                                  byte[] content) throws IOException {
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
     // Helper class for test results
     public static class TestResult {
         private final String status;
@@ -0,0 +1,27 @@
+package com.transfer;
+
+import java.util.List;
+
+public record BatchTransferResult(List<TransferResult> results, long elapsedMillis) {
+
+    public long succeeded() {
+        return results.stream().filter(TransferResult::success).count();
+    }
+
+    public long failed() {
+        return results.size() - succeeded();
+    }
+
+    public boolean allSucceeded() {
+        return failed() == 0;
+    }
+
+    public long totalBytes() {
+        return results.stream().filter(TransferResult::success).mapToLong(TransferResult::bytes).sum();
+    }
+
+    // Aggregate throughput over the wall-clock time of the whole batch
+    public double bytesPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : totalBytes() * 1000.0 / elapsedMillis;
+    }
+}
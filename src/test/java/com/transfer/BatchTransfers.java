@@ -0,0 +1,100 @@
+package com.transfer;
+
+import com.config.DatabaseConfig;
+import com.config.EnvProfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fans a batch of single-file transfers out over a bounded number of threads. Each thread runs a
+ * plain FileTransferService call, so with a pooled service every transfer gets its own channel.
+ */
+final class BatchTransfers {
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransfers.class);
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private BatchTransfers() {
+    }
+
+    // SFTP_BATCH_CONCURRENCY, defaulting to one transfer per parallel Karate worker
+    static int defaultConcurrency() {
+        return EnvProfile.getInt("SFTP_BATCH_CONCURRENCY", DatabaseConfig.karateThreads());
+    }
+
+    static <T> BatchTransferResult run(String operation, List<T> items, int concurrency,
+                                       Function<T, TransferResult> transfer) {
+        long start = System.nanoTime();
+        if (items.isEmpty()) {
+            return new BatchTransferResult(new ArrayList<>(), 0);
+        }
+        List<TransferResult> results = fanOut(operation, items, concurrency, transfer);
+        int threads = Math.max(1, Math.min(concurrency, items.size()));
+
+        BatchTransferResult batch = new BatchTransferResult(results, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Batch {}: {} of {} files, {} bytes in {} ms ({} KB/s, {} threads)", operation,
+                batch.succeeded(), items.size(), batch.totalBytes(), batch.elapsedMillis(),
+                String.format("%.1f", batch.bytesPerSecond() / 1024), threads);
+        return batch;
+    }
+
+    // Runs the task for every item on at most `concurrency` threads; results keep the input order
+    static <T, R> List<R> fanOut(String operation, List<T> items, int concurrency, Function<T, R> task) {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.isEmpty()) {
+            return results;
+        }
+
+        int threads = Math.max(1, Math.min(concurrency, items.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sftp-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileTransferException("Batch " + operation + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new FileTransferException("Batch " + operation + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Times one transfer and turns any failure into a failed result instead of aborting the batch
+    static TransferResult timed(String source, String target, Transfer transfer) {
+        long start = System.nanoTime();
+        try {
+            long bytes = transfer.run();
+            return new TransferResult(source, target, true, bytes, (System.nanoTime() - start) / 1_000_000, null);
+        } catch (Exception e) {
+            logger.warn("Transfer of {} to {} failed: {}", source, target, e.getMessage());
+            return new TransferResult(source, target, false, 0, (System.nanoTime() - start) / 1_000_000,
+                    e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    interface Transfer {
+        // Returns the number of bytes moved
+        long run() throws Exception;
+    }
+}
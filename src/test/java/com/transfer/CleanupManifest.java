@@ -0,0 +1,29 @@
+package com.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remote files created during the suite, so they can be removed in one sweep at the end instead of
+ * listing and deleting after every scenario.
+ */
+final class CleanupManifest {
+    private final Set<String> created = ConcurrentHashMap.newKeySet();
+
+    void record(String remoteFilePath) {
+        created.add(remoteFilePath);
+    }
+
+    void forget(String remoteFilePath) {
+        created.remove(remoteFilePath);
+    }
+
+    // Hands over everything recorded so far and starts a fresh manifest
+    List<String> drain() {
+        List<String> paths = new ArrayList<>(created);
+        created.removeAll(paths);
+        return paths;
+    }
+}
@@ -0,0 +1,54 @@
+package com.transfer;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Snapshot of the regular files in one remote directory, taken at listedAtMillis. The directory's
+ * own mtime at that moment lets a cached snapshot be revalidated with a single stat.
+ */
+public record DirectoryListing(String directory, long directoryModifiedSeconds, long listedAtMillis,
+                               Map<String, RemoteFileInfo> files) {
+
+    public List<String> names() {
+        return new ArrayList<>(files.keySet());
+    }
+
+    public List<String> names(String glob) {
+        Predicate<String> matcher = globMatcher(glob);
+        return files.keySet().stream().filter(matcher).toList();
+    }
+
+    // Same snapshot under the path the caller used, e.g. without a service's base path prefix
+    public DirectoryListing withDirectory(String directory) {
+        return new DirectoryListing(directory, directoryModifiedSeconds, listedAtMillis, files);
+    }
+
+    public ListingDiff diff(DirectoryListing newer) {
+        List<RemoteFileInfo> added = new ArrayList<>();
+        List<RemoteFileInfo> modified = new ArrayList<>();
+        for (RemoteFileInfo file : newer.files.values()) {
+            RemoteFileInfo previous = files.get(file.name());
+            if (previous == null) {
+                added.add(file);
+            } else if (previous.size() != file.size() || previous.modifiedSeconds() != file.modifiedSeconds()) {
+                modified.add(file);
+            }
+        }
+        List<RemoteFileInfo> removed = files.values().stream()
+                .filter(file -> !newer.files.containsKey(file.name()))
+                .toList();
+        return new ListingDiff(added, removed, modified, newer);
+    }
+
+    // Shell-style glob on file names only, e.g. "test_*" or "{test_*,*_test_*}"
+    public static Predicate<String> globMatcher(String glob) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return name -> matcher.matches(Paths.get(name));
+    }
+}
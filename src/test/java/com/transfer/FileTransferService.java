@@ -1,13 +1,102 @@
 package com.transfer;
 
 
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
 public interface FileTransferService extends AutoCloseable {
-    boolean uploadFile(Path sourcePath, String remoteDirectory);
+    default boolean uploadFile(Path sourcePath, String remoteDirectory) {
+        return uploadFile(sourcePath, remoteDirectory, sourcePath.getFileName().toString());
+    }
+
+    // Uploads under a different remote file name than the local one
+    boolean uploadFile(Path sourcePath, String remoteDirectory, String remoteName);
     boolean downloadFile(String remoteFilePath, Path localDestination);
     boolean deleteFile(String remoteFilePath);
+
+    // Deletes many files at once; files that are already gone are skipped. Returns how many were deleted
+    default int deleteFiles(List<String> remoteFilePaths) {
+        int deleted = 0;
+        for (String remoteFilePath : remoteFilePaths) {
+            try {
+                if (deleteFile(remoteFilePath)) {
+                    deleted++;
+                }
+            } catch (FileTransferException e) {
+                // Keep going; cleanup of the remaining files matters more than one failure
+            }
+        }
+        return deleted;
+    }
+
+    // Deletes every file uploaded through this service when created-file tracking is on
+    default int sweepCreatedFiles() {
+        return 0;
+    }
     List<String> listFiles(String remoteDirectory);
     boolean exists(String remoteFilePath);
+
+    // Names matching a glob such as "test_*"; SFTP has no server-side filter, so matching happens as entries arrive
+    default List<String> listFiles(String remoteDirectory, String glob) {
+        return listFiles(remoteDirectory).stream().filter(DirectoryListing.globMatcher(glob)).toList();
+    }
+
+    /**
+     * Files in a directory with size and mtime. With allowCached, a cached listing is returned as long as
+     * the directory's mtime shows no entry was added or removed since; in-place rewrites need a fresh one.
+     */
+    DirectoryListing listDirectory(String remoteDirectory, boolean allowCached);
+
+    default DirectoryListing listDirectory(String remoteDirectory) {
+        return listDirectory(remoteDirectory, true);
+    }
+
+    // What was added, removed or rewritten since an earlier listing; use diff.current() as the next baseline
+    default ListingDiff listChanges(DirectoryListing since) {
+        return since.diff(listDirectory(since.directory(), false));
+    }
+
+    // Streams a remote file without a local copy; the caller must close the stream
+    InputStream openRemoteFile(String remoteFilePath);
+
+    default ReadableByteChannel openRemoteChannel(String remoteFilePath) {
+        return Channels.newChannel(openRemoteFile(remoteFilePath));
+    }
+
+    default BatchTransferResult uploadFiles(List<Path> sourcePaths, String remoteDirectory) {
+        return uploadFiles(sourcePaths, remoteDirectory, BatchTransfers.defaultConcurrency());
+    }
+
+    // Uploads in parallel, at most `concurrency` at a time; one failed file does not stop the others
+    default BatchTransferResult uploadFiles(List<Path> sourcePaths, String remoteDirectory, int concurrency) {
+        return BatchTransfers.run("upload", sourcePaths, concurrency, source -> BatchTransfers.timed(
+                source.toString(), remoteDirectory + "/" + source.getFileName(), () -> {
+                    long bytes = Files.size(source);
+                    if (!uploadFile(source, remoteDirectory)) {
+                        throw new FileTransferException("Upload reported failure");
+                    }
+                    return bytes;
+                }));
+    }
+
+    default BatchTransferResult downloadFiles(List<String> remoteFilePaths, Path localDirectory) {
+        return downloadFiles(remoteFilePaths, localDirectory, BatchTransfers.defaultConcurrency());
+    }
+
+    // Downloads into localDirectory under each remote file's name, at most `concurrency` at a time
+    default BatchTransferResult downloadFiles(List<String> remoteFilePaths, Path localDirectory, int concurrency) {
+        return BatchTransfers.run("download", remoteFilePaths, concurrency, remote -> {
+            Path target = localDirectory.resolve(remote.substring(remote.lastIndexOf('/') + 1));
+            return BatchTransfers.timed(remote, target.toString(), () -> {
+                if (!downloadFile(remote, target)) {
+                    throw new FileTransferException("Download reported failure");
+                }
+                return Files.size(target);
+            });
+        });
+    }
 }
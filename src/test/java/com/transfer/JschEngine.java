@@ -0,0 +1,178 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+
+// JSch backend: one session with one SFTP channel per pooled entry; reads PuTTY .ppk and OpenSSH keys
+public class JschEngine implements SftpEngine {
+
+    @Override
+    public String name() {
+        return "jsch";
+    }
+
+    @Override
+    public SftpBackend<ChannelSftp> create(SftpConfig config) {
+        return new Backend(config);
+    }
+
+    private static final class Backend implements SftpBackend<ChannelSftp> {
+        private final SftpConfig config;
+        private final JSch jsch;
+
+        Backend(SftpConfig config) {
+            this.config = config;
+            try {
+                this.jsch = new JSch();
+                jsch.addIdentity(config.getPpkFilePath());
+            } catch (JSchException e) {
+                throw new FileTransferException("Failed to initialize SFTP service", e);
+            }
+        }
+
+        @Override
+        public ChannelSftp open() throws IOException {
+            try {
+                Session session = jsch.getSession(config.getUsername(), config.getHostname(), config.getPort());
+                session.setConfig("StrictHostKeyChecking", "no");
+                session.setTimeout(config.getTimeout());
+                if (config.isSshCompression()) {
+                    // Offered in preference order; the server picks the first it also supports
+                    session.setConfig("compression.s2c", "zlib@openssh.com,zlib,none");
+                    session.setConfig("compression.c2s", "zlib@openssh.com,zlib,none");
+                    session.setConfig("compression_level", String.valueOf(config.getCompressionLevel()));
+                }
+                session.connect();
+
+                ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+                channel.connect();
+                return channel;
+            } catch (JSchException e) {
+                throw new IOException("Failed to connect to SFTP server", e);
+            }
+        }
+
+        @Override
+        public boolean isConnected(ChannelSftp channel) {
+            try {
+                return channel.isConnected() && channel.getSession().isConnected();
+            } catch (JSchException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void disconnect(ChannelSftp channel) {
+            try {
+                Session session = channel.getSession();
+                channel.disconnect();
+                session.disconnect();
+            } catch (JSchException e) {
+                channel.disconnect();
+            }
+        }
+
+        @Override
+        public RemoteFileInfo stat(ChannelSftp channel, String path) throws IOException {
+            try {
+                SftpATTRS attrs = channel.stat(path);
+                return new RemoteFileInfo(path.substring(path.lastIndexOf('/') + 1), attrs.getSize(), attrs.getMTime());
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return null;
+                }
+                throw toIOException(path, e);
+            }
+        }
+
+        @Override
+        public List<RemoteFileInfo> list(ChannelSftp channel, String directory) throws IOException {
+            List<RemoteFileInfo> files = new ArrayList<>();
+            try {
+                // The selector sees entries as they arrive instead of collecting them into a Vector first
+                channel.ls(directory, entry -> {
+                    SftpATTRS attrs = entry.getAttrs();
+                    if (!attrs.isDir()) {
+                        files.add(new RemoteFileInfo(entry.getFilename(), attrs.getSize(), attrs.getMTime()));
+                    }
+                    return ChannelSftp.LsEntrySelector.CONTINUE;
+                });
+                return files;
+            } catch (SftpException e) {
+                throw toIOException(directory, e);
+            }
+        }
+
+        @Override
+        public void mkdir(ChannelSftp channel, String path) throws IOException {
+            try {
+                channel.mkdir(path);
+            } catch (SftpException e) {
+                throw toIOException(path, e);
+            }
+        }
+
+        @Override
+        public InputStream read(ChannelSftp channel, String path, long offset) throws IOException {
+            try {
+                return channel.get(path, null, offset);
+            } catch (SftpException e) {
+                throw toIOException(path, e);
+            }
+        }
+
+        @Override
+        public OutputStream write(ChannelSftp channel, String path, long offset) throws IOException {
+            try {
+                if (offset == 0) {
+                    return channel.put(path, null, ChannelSftp.OVERWRITE, 0);
+                }
+                // APPEND starts at the current size plus the given offset, so pass the difference
+                RemoteFileInfo current = stat(channel, path);
+                long size = current != null ? current.size() : 0;
+                return channel.put(path, null, ChannelSftp.APPEND, offset - size);
+            } catch (SftpException e) {
+                throw toIOException(path, e);
+            }
+        }
+
+        @Override
+        public void remove(ChannelSftp channel, String path) throws IOException {
+            try {
+                channel.rm(path);
+            } catch (SftpException e) {
+                throw toIOException(path, e);
+            }
+        }
+
+        @Override
+        public void rename(ChannelSftp channel, String from, String to) throws IOException {
+            try {
+                channel.rename(from, to);
+            } catch (SftpException e) {
+                throw toIOException(from, e);
+            }
+        }
+
+        private static IOException toIOException(String path, SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                NoSuchFileException missing = new NoSuchFileException(path);
+                missing.initCause(e);
+                return missing;
+            }
+            return new IOException(e.getMessage() + ": " + path, e);
+        }
+    }
+}
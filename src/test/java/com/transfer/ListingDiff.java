@@ -0,0 +1,15 @@
+package com.transfer;
+
+import java.util.List;
+
+/**
+ * What changed in a remote directory between two listings. Modified means the same name with a
+ * different size or mtime. The current listing is the baseline for the next diff.
+ */
+public record ListingDiff(List<RemoteFileInfo> added, List<RemoteFileInfo> removed, List<RemoteFileInfo> modified,
+                          DirectoryListing current) {
+
+    public boolean hasChanges() {
+        return !added.isEmpty() || !removed.isEmpty() || !modified.isEmpty();
+    }
+}
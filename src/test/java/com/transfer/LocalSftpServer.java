@@ -0,0 +1,150 @@
+package com.transfer;
+
+import com.config.EnvProfile;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.KeyPair;
+
+import org.apache.sshd.common.config.keys.KeyUtils;
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.PublicKey;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Apache MINA SFTP server for running the transfer and parse pipeline without a remote host.
+ * Started once per JVM when karate.env=local (or SFTP_LOCAL_SERVER=true), it serves a temporary
+ * directory on a loopback port and accepts only a client key generated for the run.
+ * {@link com.config.SftpEnvironmentConfig} points the SFTP configuration at it automatically.
+ */
+public final class LocalSftpServer {
+    private static final Logger logger = LoggerFactory.getLogger(LocalSftpServer.class);
+
+    public static final String PROFILE = "local";
+    public static final String USERNAME = "tester";
+    // Remote base path inside the served directory
+    public static final String BASE_PATH = "/data";
+
+    private static final SharedResource<LocalSftpServer> shared = SuiteLifecycle.register(
+            new SharedResource<>("local SFTP server", LocalSftpServer::start, LocalSftpServer::stop));
+
+    private final SshServer server;
+    private final Path root;
+    private final Path keyDirectory;
+    private final Path keyFile;
+    // Only a directory this class created is deleted on stop
+    private final boolean temporaryRoot;
+
+    private LocalSftpServer(SshServer server, Path root, Path keyDirectory, Path keyFile, boolean temporaryRoot) {
+        this.server = server;
+        this.root = root;
+        this.keyDirectory = keyDirectory;
+        this.keyFile = keyFile;
+        this.temporaryRoot = temporaryRoot;
+    }
+
+    public static boolean isEnabled() {
+        return PROFILE.equals(EnvProfile.activeProfile())
+                || Boolean.parseBoolean(EnvProfile.get("SFTP_LOCAL_SERVER", "false"));
+    }
+
+    // For resources that connect to the server to declare with SharedResource.dependsOn
+    public static SharedResource<?> sharedResource() {
+        return shared;
+    }
+
+    // The running server, started on first use
+    public static LocalSftpServer get() {
+        return shared.get();
+    }
+
+    public String getHostname() {
+        return server.getHost();
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+
+    public String getUsername() {
+        return USERNAME;
+    }
+
+    public String getPrivateKeyPath() {
+        return keyFile.toString();
+    }
+
+    // Local directory the server exposes as "/"
+    public Path getRoot() {
+        return root;
+    }
+
+    private static LocalSftpServer start() {
+        try {
+            String configuredRoot = EnvProfile.get("SFTP_LOCAL_ROOT");
+            Path root = configuredRoot != null
+                    ? Files.createDirectories(Paths.get(configuredRoot).toAbsolutePath())
+                    : Files.createTempDirectory("local-sftp");
+            Files.createDirectories(root.resolve(BASE_PATH.substring(1)));
+
+            // PKCS#1 PEM, which both JSch and MINA read; kept outside the served directory
+            Path keyDirectory = Files.createTempDirectory("local-sftp-key");
+            Path keyFile = keyDirectory.resolve("id_rsa");
+            KeyPair clientKey = KeyPair.genKeyPair(new JSch(), KeyPair.RSA, 2048);
+            clientKey.writePrivateKey(keyFile.toString());
+            clientKey.dispose();
+            PublicKey authorizedKey = MinaSessions.keyPairs(keyFile.toString()).get(0).getPublic();
+
+            SshServer server = SshServer.setUpDefaultServer();
+            server.setHost("127.0.0.1");
+            server.setPort(EnvProfile.getInt("SFTP_LOCAL_PORT", 0));
+            server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+            server.setPublickeyAuthenticator((username, key, session) ->
+                    USERNAME.equals(username) && KeyUtils.compareKeys(authorizedKey, key));
+            server.setSubsystemFactories(List.of(new SftpSubsystemFactory.Builder().build()));
+            server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+            server.start();
+
+            logger.info("Local SFTP server listening on {}:{}, serving {}", server.getHost(), server.getPort(), root);
+            return new LocalSftpServer(server, root, keyDirectory, keyFile, configuredRoot == null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start local SFTP server", e);
+        } catch (JSchException e) {
+            throw new IllegalStateException("Failed to generate local SFTP client key", e);
+        }
+    }
+
+    private void stop() {
+        try {
+            server.stop(true);
+        } catch (IOException e) {
+            logger.warn("Error stopping local SFTP server: {}", e.getMessage());
+        }
+        deleteTree(keyDirectory);
+        if (temporaryRoot) {
+            deleteTree(root);
+        }
+    }
+
+    private static void deleteTree(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", directory, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClientFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the transfer service on both engines against the embedded server. The server is a suite
+ * resource, so it is started here on first use and stopped by SuiteLifecycle with everything else.
+ */
+public class LocalSftpServerTest {
+    private static final String DIRECTORY = "incoming";
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private static LocalSftpServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void startServer() {
+        server = LocalSftpServer.get();
+    }
+
+    // Paths given to the service are relative to the base path, as in the suite
+    private static SecureFileTransfer service(String engine) {
+        return new SecureFileTransfer(SftpConfig.builder()
+                .hostname(server.getHostname())
+                .port(server.getPort())
+                .username(server.getUsername())
+                .ppkFilePath(server.getPrivateKeyPath())
+                .remoteBasePath(LocalSftpServer.BASE_PATH)
+                .timeout(TIMEOUT_MILLIS)
+                .engine(engine)
+                .poolMaxSize(2)
+                .build());
+    }
+
+    private static Path served(String remoteFilePath) {
+        return server.getRoot().resolve(LocalSftpServer.BASE_PATH.substring(1)).resolve(remoteFilePath);
+    }
+
+    private Path randomFile(String name, int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return Files.write(tempDir.resolve(name), data);
+    }
+
+    @Test
+    public void uploadListDownloadAndDeleteOnBothEngines() throws Exception {
+        for (String engine : List.of("jsch", "mina")) {
+            Path source = randomFile("roundtrip_" + engine + ".bin", 200 * 1024);
+            String remoteFilePath = DIRECTORY + "/" + source.getFileName();
+
+            try (SecureFileTransfer sftp = service(engine)) {
+                assertTrue(sftp.uploadFile(source, DIRECTORY));
+                assertTrue(sftp.exists(remoteFilePath));
+                assertTrue(sftp.listFiles(DIRECTORY).contains(source.getFileName().toString()));
+                assertEquals(-1, Files.mismatch(source, served(remoteFilePath)));
+
+                Path downloaded = Files.createDirectory(tempDir.resolve("download_" + engine));
+                assertTrue(sftp.downloadFile(remoteFilePath, downloaded));
+                assertEquals(-1, Files.mismatch(source, downloaded.resolve(source.getFileName())));
+
+                try (InputStream in = sftp.openRemoteFile(remoteFilePath)) {
+                    assertArrayEquals(Files.readAllBytes(source), in.readAllBytes());
+                }
+
+                assertTrue(sftp.deleteFile(remoteFilePath));
+                assertFalse(sftp.exists(remoteFilePath));
+            }
+        }
+    }
+
+    @Test
+    public void interruptedUploadContinuesFromThePartialFile() throws Exception {
+        int size = 64 * 1024 * 1024;
+        assumeTrue(TransferCheckpoint.shouldResume(size), "SFTP_RESUME_MIN_BYTES is above the test file size");
+        assumeFalse(TransferCheckpoint.verifyChecksum(), "SFTP_RESUME_VERIFY=checksum restarts mismatched partials");
+        Path source = randomFile("resume.bin", size);
+        String remoteFilePath = DIRECTORY + "/" + source.getFileName();
+        String checkpointTarget = LocalSftpServer.BASE_PATH + "/" + remoteFilePath;
+        int offset = size / 2;
+
+        // Leave what an interrupted attempt would: a checkpoint and the first half in the partial file.
+        // The partial bytes are zeros rather than the source's, so the result shows they were kept.
+        TransferCheckpoint.open("upload", source.toAbsolutePath().toString(), checkpointTarget)
+                .start(size, Files.getLastModifiedTime(source).toMillis());
+        Path partial = served(remoteFilePath + TransferCheckpoint.PART_SUFFIX);
+        Files.createDirectories(partial.getParent());
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            out.write(new byte[offset]);
+        }
+
+        try (SecureFileTransfer sftp = service("mina")) {
+            assertTrue(sftp.uploadFile(source, DIRECTORY));
+        }
+
+        Path uploaded = served(remoteFilePath);
+        assertFalse(Files.exists(partial));
+        assertEquals(size, Files.size(uploaded));
+        try (InputStream remote = Files.newInputStream(uploaded); InputStream local = Files.newInputStream(source)) {
+            assertArrayEquals(new byte[offset], remote.readNBytes(offset));
+            local.skipNBytes(offset);
+            assertArrayEquals(local.readAllBytes(), remote.readAllBytes());
+        }
+        // The checkpoint is gone, so the next upload of the same file starts from byte 0
+        assertEquals(0, TransferCheckpoint.open("upload", source.toAbsolutePath().toString(), checkpointTarget)
+                .resumeOffset(size, Files.getLastModifiedTime(source).toMillis(), offset));
+        Files.delete(uploaded);
+    }
+
+    @Test
+    public void serverChecksumMatchesTheUploadedContent() throws Exception {
+        Path source = randomFile("verify.bin", 512 * 1024);
+        String remoteFilePath = DIRECTORY + "/" + source.getFileName();
+        try (SecureFileTransfer sftp = service("mina")) {
+            sftp.uploadFile(source, DIRECTORY);
+        }
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(source));
+        try (ClientSession session = MinaSessions.client(false)
+                .connect(server.getUsername(), server.getHostname(), server.getPort())
+                .verify(TIMEOUT_MILLIS).getSession()) {
+            session.addPublicKeyIdentity(MinaSessions.keyPairs(server.getPrivateKeyPath()).get(0));
+            session.auth().verify(TIMEOUT_MILLIS);
+            try (SftpClient client = SftpClientFactory.instance().createSftpClient(session)) {
+                String remotePath = LocalSftpServer.BASE_PATH + "/" + remoteFilePath;
+                byte[] checksum = MinaEngine.serverChecksum(client, remotePath);
+                assertNotNull(checksum, "server does not offer check-file for sha256");
+                assertArrayEquals(expected, checksum);
+
+                TransferDigest digest = TransferDigest.forMode("sha256");
+                try (InputStream in = digest.wrap(client.read(remotePath))) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                digest.verify(remotePath, Files.size(source), checksum);
+                client.remove(remotePath);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.SftpClientFactory;
+import org.apache.sshd.sftp.client.extensions.CheckFileNameExtension;
+import org.apache.sshd.sftp.client.impl.SftpOutputStreamAsync;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apache MINA SSHD backend. Uploads and downloads go through MINA's async streams, which keep many
+ * read/write requests in flight. Keys are read in OpenSSH, PEM or PKCS#8 format (PuTTY .ppk needs JSch).
+ * The SSH client and parsed keys come from {@link MinaSessions}; each pooled channel still gets its
+ * own session so parallel transfers do not share one connection's window.
+ */
+public class MinaEngine implements SftpEngine {
+
+    @Override
+    public String name() {
+        return "mina";
+    }
+
+    @Override
+    public SftpBackend<SftpClient> create(SftpConfig config) {
+        return new Backend(config);
+    }
+
+    /**
+     * SHA-256 of a remote file hashed by the server through the check-file extension, or null when
+     * the server does not offer it or not for SHA-256.
+     */
+    public static byte[] serverChecksum(SftpClient channel, String path) throws IOException {
+        CheckFileNameExtension checkFile = channel.getExtension(CheckFileNameExtension.class);
+        if (checkFile == null || !checkFile.isSupported()) {
+            return null;
+        }
+        try {
+            // Length 0 hashes to the end of the file; block size 0 returns a single hash for all of it
+            Map.Entry<String, Collection<byte[]>> result = checkFile.checkFileName(path,
+                    List.of(TransferDigest.CHECK_FILE_ALGORITHM), 0, 0, 0);
+            if (!TransferDigest.CHECK_FILE_ALGORITHM.equalsIgnoreCase(result.getKey()) || result.getValue().size() != 1) {
+                return null;
+            }
+            return result.getValue().iterator().next();
+        } catch (SftpException e) {
+            if (e.getStatus() == SftpConstants.SSH_FX_OP_UNSUPPORTED) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Backend implements SftpBackend<SftpClient> {
+        private final SftpConfig config;
+        private final SshClient client;
+        private final List<KeyPair> identities;
+
+        Backend(SftpConfig config) {
+            this.config = config;
+            // Key parsing and client start-up are shared with every other MINA user in the JVM
+            try {
+                this.identities = MinaSessions.keyPairs(config.getPpkFilePath());
+            } catch (IOException e) {
+                throw new FileTransferException("Failed to load SFTP private key: " + config.getPpkFilePath(), e);
+            }
+            this.client = MinaSessions.client(config.isSshCompression());
+        }
+
+        @Override
+        public SftpClient open() throws IOException {
+            ClientSession session = client.connect(config.getUsername(), config.getHostname(), config.getPort())
+                    .verify(config.getTimeout())
+                    .getSession();
+            try {
+                identities.forEach(session::addPublicKeyIdentity);
+                session.auth().verify(config.getTimeout());
+                // The channel window must hold every outstanding write, otherwise the pipeline stalls on window adjusts
+                long windowSize = (long) config.getTransferBufferSize() * config.getMaxPendingWrites();
+                if (windowSize > CoreModuleProperties.WINDOW_SIZE.getRequiredDefault()) {
+                    CoreModuleProperties.WINDOW_SIZE.set(session, windowSize);
+                }
+                return SftpClientFactory.instance().createSftpClient(session);
+            } catch (IOException | RuntimeException e) {
+                session.close(true);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isConnected(SftpClient channel) {
+            return channel.isOpen() && channel.getClientSession().isOpen();
+        }
+
+        @Override
+        public void disconnect(SftpClient channel) {
+            ClientSession session = channel.getClientSession();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // The session close below tears the channel down regardless
+            }
+            session.close(true);
+        }
+
+        @Override
+        public RemoteFileInfo stat(SftpClient channel, String path) throws IOException {
+            try {
+                SftpClient.Attributes attrs = channel.stat(path);
+                return new RemoteFileInfo(path.substring(path.lastIndexOf('/') + 1), attrs.getSize(),
+                        modifiedSeconds(attrs));
+            } catch (SftpException e) {
+                if (e.getStatus() == SftpConstants.SSH_FX_NO_SUCH_FILE) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public List<RemoteFileInfo> list(SftpClient channel, String directory) throws IOException {
+            List<RemoteFileInfo> files = new ArrayList<>();
+            try {
+                for (SftpClient.DirEntry entry : channel.readDir(directory)) {
+                    SftpClient.Attributes attrs = entry.getAttributes();
+                    if (!attrs.isDirectory()) {
+                        files.add(new RemoteFileInfo(entry.getFilename(), attrs.getSize(), modifiedSeconds(attrs)));
+                    }
+                }
+                return files;
+            } catch (SftpException e) {
+                throw translate(directory, e);
+            }
+        }
+
+        @Override
+        public void mkdir(SftpClient channel, String path) throws IOException {
+            channel.mkdir(path);
+        }
+
+        @Override
+        public InputStream read(SftpClient channel, String path, long offset) throws IOException {
+            try {
+                InputStream in = channel.read(path, config.getTransferBufferSize());
+                if (offset > 0) {
+                    // The async stream moves its read position without fetching the skipped bytes
+                    in.skipNBytes(offset);
+                }
+                return in;
+            } catch (SftpException e) {
+                throw translate(path, e);
+            }
+        }
+
+        @Override
+        public OutputStream write(SftpClient channel, String path, long offset) throws IOException {
+            try {
+                if (offset == 0) {
+                    return channel.write(path, config.getTransferBufferSize(), SftpClient.OpenMode.Write,
+                            SftpClient.OpenMode.Create, SftpClient.OpenMode.Truncate);
+                }
+                OutputStream out = channel.write(path, config.getTransferBufferSize(), SftpClient.OpenMode.Write,
+                        SftpClient.OpenMode.Create);
+                if (!(out instanceof SftpOutputStreamAsync)) {
+                    out.close();
+                    throw new IOException("SFTP client stream does not support writing at an offset");
+                }
+                ((SftpOutputStreamAsync) out).setOffset(offset);
+                return out;
+            } catch (SftpException e) {
+                throw translate(path, e);
+            }
+        }
+
+        @Override
+        public void remove(SftpClient channel, String path) throws IOException {
+            try {
+                channel.remove(path);
+            } catch (SftpException e) {
+                throw translate(path, e);
+            }
+        }
+
+        @Override
+        public void rename(SftpClient channel, String from, String to) throws IOException {
+            try {
+                channel.rename(from, to);
+            } catch (SftpException e) {
+                throw translate(from, e);
+            }
+        }
+
+        @Override
+        public byte[] checksum(SftpClient channel, String path) throws IOException {
+            return serverChecksum(channel, path);
+        }
+
+        private static long modifiedSeconds(SftpClient.Attributes attrs) {
+            return attrs.getModifyTime() != null ? attrs.getModifyTime().to(TimeUnit.SECONDS) : 0;
+        }
+
+        private static IOException translate(String path, SftpException e) {
+            if (e.getStatus() == SftpConstants.SSH_FX_NO_SUCH_FILE) {
+                NoSuchFileException missing = new NoSuchFileException(path);
+                missing.initCause(e);
+                return missing;
+            }
+            return e;
+        }
+    }
+}
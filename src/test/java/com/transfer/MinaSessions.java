@@ -0,0 +1,122 @@
+package com.transfer;
+
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+
+import org.apache.sshd.client.SshClient;
+import org.apache.sshd.common.NamedResource;
+import org.apache.sshd.common.util.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Apache MINA SSH state shared by the whole JVM: one started {@link SshClient} per compression
+ * setting and private keys parsed once per file, so opening another pooled channel or a local
+ * server skips both. Everything is closed once at the end of the suite.
+ */
+public final class MinaSessions {
+    private static final Logger logger = LoggerFactory.getLogger(MinaSessions.class);
+
+    private static final SharedResource<MinaSessions> shared = SuiteLifecycle.register(
+            new SharedResource<>("MINA SSH client", MinaSessions::new, MinaSessions::stop));
+
+    private final Map<Boolean, SshClient> clients = new ConcurrentHashMap<>();
+    private final Map<Path, KeyMaterial> keys = new ConcurrentHashMap<>();
+
+    private MinaSessions() {
+    }
+
+    // For resources that open MINA sessions to declare with SharedResource.dependsOn
+    public static SharedResource<?> sharedResource() {
+        return shared;
+    }
+
+    // Started on first use and stopped by SuiteLifecycle, never by the caller
+    public static SshClient client(boolean compression) {
+        return shared.get().clients.computeIfAbsent(compression, MinaSessions::startClient);
+    }
+
+    /**
+     * Key pairs in a private key file (OpenSSH, PEM or raw PKCS#8 RSA), parsed once and reused until
+     * the file changes. A missing file yields no identities.
+     */
+    public static List<KeyPair> keyPairs(String privateKeyPath) throws IOException {
+        Path path = Paths.get(privateKeyPath).toAbsolutePath();
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        Map<Path, KeyMaterial> keys = shared.get().keys;
+        KeyMaterial cached = keys.get(path);
+        if (cached != null && cached.modified == modified) {
+            return cached.keyPairs;
+        }
+        KeyMaterial loaded = new KeyMaterial(modified, loadKeyPairs(path));
+        keys.put(path, loaded);
+        return loaded.keyPairs;
+    }
+
+    private static SshClient startClient(boolean compression) {
+        SshClient client = SshClient.setUpDefaultClient();
+        if (compression) {
+            // SSH-level zlib; "none" stays last so servers without compression still connect
+            client.setCompressionFactoriesNames("zlib@openssh.com", "zlib", "none");
+        }
+        client.start();
+        return client;
+    }
+
+    private static List<KeyPair> loadKeyPairs(Path path) throws IOException {
+        List<KeyPair> keyPairs = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(path)) {
+            Iterable<KeyPair> parsed = SecurityUtils.loadKeyPairIdentities(null,
+                    NamedResource.ofName(path.toString()), in, null);
+            if (parsed != null) {
+                parsed.forEach(keyPairs::add);
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            logger.debug("{} is not an OpenSSH/PEM key ({}), trying raw PKCS#8", path, e.getMessage());
+        }
+        if (keyPairs.isEmpty()) {
+            keyPairs.add(loadPkcs8Rsa(path));
+        }
+        return List.copyOf(keyPairs);
+    }
+
+    // Binary PKCS#8 RSA key, the format the earlier connection code read; the public half comes from the CRT fields
+    private static KeyPair loadPkcs8Rsa(Path path) throws IOException {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(Files.readAllBytes(path)));
+            return new KeyPair(keyFactory.generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent())), privateKey);
+        } catch (GeneralSecurityException | ClassCastException e) {
+            throw new IOException("Failed to load private key: " + path, e);
+        }
+    }
+
+    private void stop() {
+        clients.values().forEach(SshClient::stop);
+        clients.clear();
+    }
+
+    private record KeyMaterial(long modified, List<KeyPair> keyPairs) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.transfer;
+
+// One regular file in a remote directory listing; modifiedSeconds is the server's mtime
+public record RemoteFileInfo(String name, long size, long modifiedSeconds) {
+}
@@ -0,0 +1,50 @@
+package com.transfer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory listings keyed by path, reused while the directory's mtime is unchanged. Adding,
+ * removing or renaming an entry bumps that mtime, so one stat replaces a full readdir.
+ */
+final class RemoteListingCache {
+    // mtime has one-second resolution and client and server clocks differ slightly, so a listing is
+    // only trusted once it was taken clearly after the directory's last change
+    private static final long SETTLE_SECONDS = 2;
+
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final Map<String, DirectoryListing> listings = new ConcurrentHashMap<>();
+
+    RemoteListingCache(boolean enabled, long maxAgeMillis) {
+        this.enabled = enabled;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    DirectoryListing lookup(String directory, long directoryModifiedSeconds) {
+        DirectoryListing cached = enabled ? listings.get(directory) : null;
+        if (cached == null) {
+            return null;
+        }
+        boolean sameVersion = cached.directoryModifiedSeconds() == directoryModifiedSeconds;
+        boolean settled = cached.listedAtMillis() / 1000 >= directoryModifiedSeconds + SETTLE_SECONDS;
+        // Rewriting a file in place leaves the directory mtime alone, so sizes are refreshed after maxAge
+        boolean young = System.currentTimeMillis() - cached.listedAtMillis() < maxAgeMillis;
+        return sameVersion && settled && young ? cached : null;
+    }
+
+    void store(DirectoryListing listing) {
+        if (enabled) {
+            listings.put(listing.directory(), listing);
+        }
+    }
+
+    void invalidate(String directory) {
+        listings.remove(directory);
+    }
+
+    void invalidateParentOf(String remoteFilePath) {
+        int slash = remoteFilePath.lastIndexOf('/');
+        invalidate(slash > 0 ? remoteFilePath.substring(0, slash) : ".");
+    }
+}
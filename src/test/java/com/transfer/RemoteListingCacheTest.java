@@ -0,0 +1,82 @@
+package com.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RemoteListingCacheTest {
+
+    private static DirectoryListing listing(String directory, long modifiedSeconds, long listedAtMillis) {
+        return new DirectoryListing(directory, modifiedSeconds, listedAtMillis,
+                Map.of("a.csv", new RemoteFileInfo("a.csv", 10, modifiedSeconds)));
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    public void settledListingIsReusedWhileMtimeIsUnchanged() {
+        RemoteListingCache cache = new RemoteListingCache(true, 60000);
+        long modified = nowSeconds() - 10;
+        DirectoryListing listing = listing("incoming", modified, System.currentTimeMillis());
+        cache.store(listing);
+
+        assertSame(listing, cache.lookup("incoming", modified));
+        assertNull(cache.lookup("incoming", modified + 1));
+        assertNull(cache.lookup("outgoing", modified));
+    }
+
+    @Test
+    public void listingTakenInTheSameSecondAsTheChangeIsNotTrusted() {
+        RemoteListingCache cache = new RemoteListingCache(true, 60000);
+        long now = System.currentTimeMillis();
+        long modified = now / 1000;
+
+        // Another entry could still land within the same mtime second without changing it
+        cache.store(listing("incoming", modified, now));
+        assertNull(cache.lookup("incoming", modified));
+
+        cache.store(listing("incoming", modified - 1, now));
+        assertNull(cache.lookup("incoming", modified - 1));
+
+        DirectoryListing settled = listing("incoming", modified - 2, now);
+        cache.store(settled);
+        assertSame(settled, cache.lookup("incoming", modified - 2));
+    }
+
+    @Test
+    public void listingOlderThanMaxAgeIsRefreshed() {
+        RemoteListingCache cache = new RemoteListingCache(true, 1000);
+        long modified = nowSeconds() - 10;
+        cache.store(listing("incoming", modified, System.currentTimeMillis() - 5000));
+
+        assertNull(cache.lookup("incoming", modified));
+    }
+
+    @Test
+    public void invalidationDropsTheParentDirectory() {
+        RemoteListingCache cache = new RemoteListingCache(true, 60000);
+        long modified = nowSeconds() - 10;
+        cache.store(listing("data/incoming", modified, System.currentTimeMillis()));
+        cache.store(listing(".", modified, System.currentTimeMillis()));
+
+        cache.invalidateParentOf("data/incoming/a.csv");
+        cache.invalidateParentOf("b.csv");
+
+        assertNull(cache.lookup("data/incoming", modified));
+        assertNull(cache.lookup(".", modified));
+    }
+
+    @Test
+    public void disabledCacheStoresNothing() {
+        RemoteListingCache cache = new RemoteListingCache(false, 60000);
+        long modified = nowSeconds() - 10;
+        cache.store(listing("incoming", modified, System.currentTimeMillis()));
+
+        assertNull(cache.lookup("incoming", modified));
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import com.config.SftpConfig;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -14,16 +15,16 @@ public class SecureFileTransfer implements FileTransferService {
     private final String remoteBasePath;
 
     public SecureFileTransfer(SftpConfig config) {
-        this.transferService = new SftpService(config);
+        this.transferService = SftpService.create(config);
         this.remoteBasePath = config.getRemoteBasePath();
     }
 
     @Override
-    public boolean uploadFile(Path sourcePath, String remoteDirectory) {
+    public boolean uploadFile(Path sourcePath, String remoteDirectory, String remoteName) {
         String fullRemotePath = remoteBasePath + "/" + remoteDirectory;
         try {
             logger.info("Starting secure file transfer to: {}", fullRemotePath);
-            return transferService.uploadFile(sourcePath, fullRemotePath);
+            return transferService.uploadFile(sourcePath, fullRemotePath, remoteName);
         } catch (Exception e) {
             logger.error("Secure file transfer failed", e);
             throw new FileTransferException("Secure file transfer failed", e);
@@ -50,6 +51,23 @@ public class SecureFileTransfer implements FileTransferService {
         }
     }
 
+    @Override
+    public int deleteFiles(List<String> remoteFilePaths) {
+        List<String> fullRemotePaths = remoteFilePaths.stream()
+                .map(remoteFilePath -> remoteBasePath + "/" + remoteFilePath)
+                .toList();
+        try {
+            return transferService.deleteFiles(fullRemotePaths);
+        } catch (Exception e) {
+            throw new FileTransferException("Secure bulk deletion failed", e);
+        }
+    }
+
+    @Override
+    public int sweepCreatedFiles() {
+        return transferService.sweepCreatedFiles();
+    }
+
     @Override
     public List<String> listFiles(String remoteDirectory) {
         String fullRemotePath = remoteBasePath + "/" + remoteDirectory;
@@ -60,6 +78,27 @@ public class SecureFileTransfer implements FileTransferService {
         }
     }
 
+    @Override
+    public List<String> listFiles(String remoteDirectory, String glob) {
+        String fullRemotePath = remoteBasePath + "/" + remoteDirectory;
+        try {
+            return transferService.listFiles(fullRemotePath, glob);
+        } catch (Exception e) {
+            throw new FileTransferException("Failed to list files", e);
+        }
+    }
+
+    @Override
+    public DirectoryListing listDirectory(String remoteDirectory, boolean allowCached) {
+        String fullRemotePath = remoteBasePath + "/" + remoteDirectory;
+        try {
+            // Relabelled so listChanges() hands the same relative path back to this service
+            return transferService.listDirectory(fullRemotePath, allowCached).withDirectory(remoteDirectory);
+        } catch (Exception e) {
+            throw new FileTransferException("Failed to list directory", e);
+        }
+    }
+
     @Override
     public boolean exists(String remoteFilePath) {
         String fullRemotePath = remoteBasePath + "/" + remoteFilePath;
@@ -70,6 +109,16 @@ public class SecureFileTransfer implements FileTransferService {
         }
     }
 
+    @Override
+    public InputStream openRemoteFile(String remoteFilePath) {
+        String fullRemotePath = remoteBasePath + "/" + remoteFilePath;
+        try {
+            return transferService.openRemoteFile(fullRemotePath);
+        } catch (Exception e) {
+            throw new FileTransferException("Failed to open remote file", e);
+        }
+    }
+
     @Override
     public void close() {
         try {
@@ -0,0 +1,53 @@
+package com.transfer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The small set of primitives an SFTP engine provides on its channel type C. Everything built on
+ * top - pooling, retries, resume, compression, listing cache, bulk operations and metrics - lives in
+ * {@link SftpService} and is shared by every engine. A missing file is reported as
+ * {@link java.nio.file.NoSuchFileException}, any other failure as IOException.
+ */
+public interface SftpBackend<C> extends AutoCloseable {
+    // Opens and authenticates one channel; each is used by a single thread at a time
+    C open() throws IOException;
+
+    boolean isConnected(C channel);
+
+    void disconnect(C channel);
+
+    // One cheap round trip proving the channel still works
+    default void validate(C channel) throws IOException {
+        stat(channel, ".");
+    }
+
+    // Size and mtime of a file or directory, or null when it does not exist
+    RemoteFileInfo stat(C channel, String path) throws IOException;
+
+    // Regular files (anything but directories) in a directory
+    List<RemoteFileInfo> list(C channel, String directory) throws IOException;
+
+    void mkdir(C channel, String path) throws IOException;
+
+    InputStream read(C channel, String path, long offset) throws IOException;
+
+    // Offset 0 creates or truncates the file; a positive offset keeps the content before it
+    OutputStream write(C channel, String path, long offset) throws IOException;
+
+    void remove(C channel, String path) throws IOException;
+
+    void rename(C channel, String from, String to) throws IOException;
+
+    // SHA-256 of the whole file computed by the server, or null when the server cannot provide one
+    default byte[] checksum(C channel, String path) throws IOException {
+        return null;
+    }
+
+    // Releases engine-wide resources once the pool has closed every channel
+    @Override
+    default void close() {
+    }
+}
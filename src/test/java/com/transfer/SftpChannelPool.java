@@ -0,0 +1,273 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+import com.transfer.TransferScheduler.Priority;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of authenticated SFTP channels from any {@link SftpBackend}. SFTP channels are not
+ * thread-safe, so every operation borrows a channel for its exclusive use and returns it after.
+ * Idle channels are revalidated before reuse and evicted once idle for too long. BULK work may hold
+ * all channels but one, so INTERACTIVE work (small files, listings, deletes) never waits behind
+ * large transfers for a channel.
+ */
+public class SftpChannelPool<C> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SftpChannelPool.class);
+
+    private final SftpConfig config;
+    private final SftpBackend<C> backend;
+    private final Semaphore permits;
+    // Taken by BULK work on top of a permit; one short of the pool size, leaving a channel for INTERACTIVE
+    private final Semaphore bulkPermits;
+    // LIFO so the most recently used (warmest) channel is reused first and old ones age out
+    private final ConcurrentLinkedDeque<PooledChannel<C>> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    @FunctionalInterface
+    public interface SftpWork<C, T> {
+        T apply(C channel) throws IOException;
+    }
+
+    public SftpChannelPool(SftpConfig config, SftpBackend<C> backend) {
+        this.config = config;
+        this.backend = backend;
+        this.permits = new Semaphore(config.getPoolMaxSize(), true);
+        this.bulkPermits = new Semaphore(Math.max(1, config.getPoolMaxSize() - 1), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sftp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000, config.getPoolIdleTimeoutMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens the minimum idle channels up front, failing fast when the server is unreachable
+    public void prestart() {
+        int target = Math.min(config.getPoolMinIdle(), config.getPoolMaxSize());
+        while (open.get() < target) {
+            idle.offerFirst(create());
+        }
+    }
+
+    /**
+     * Runs the work on a borrowed channel. A channel that failed at transport level is discarded and,
+     * up to SFTP_RETRY_ATTEMPTS times, the work is retried on a fresh one; failures on a healthy
+     * channel (missing file, permission denied) are not retried.
+     */
+    public <T> T execute(SftpWork<C, T> work) throws IOException {
+        return execute(Priority.INTERACTIVE, work);
+    }
+
+    public <T> T execute(Priority priority, SftpWork<C, T> work) throws IOException {
+        int retriesLeft = config.getRetryAttempts();
+        while (true) {
+            PooledChannel<C> pooled = borrow(priority);
+            boolean broken = false;
+            try {
+                return work.apply(pooled.channel);
+            } catch (IOException e) {
+                broken = !backend.isConnected(pooled.channel);
+                if (!broken || retriesLeft-- <= 0) {
+                    throw e;
+                }
+                logger.warn("SFTP channel dropped ({}), retrying on a new channel", e.getMessage());
+            } catch (RuntimeException e) {
+                // A bug in the work, not the channel; only a dropped connection costs the channel
+                broken = !backend.isConnected(pooled.channel);
+                throw e;
+            } finally {
+                release(pooled, broken);
+            }
+        }
+    }
+
+    /**
+     * Opens a stream on a borrowed channel and keeps the channel out of the pool until the stream is
+     * closed, so the caller can consume it at its own pace. Counted as BULK, since the channel stays
+     * out for as long as the caller reads.
+     */
+    public InputStream openStream(SftpWork<C, InputStream> open) throws IOException {
+        PooledChannel<C> pooled = borrow(Priority.BULK);
+        InputStream stream;
+        try {
+            stream = open.apply(pooled.channel);
+        } catch (IOException e) {
+            release(pooled, !backend.isConnected(pooled.channel));
+            throw e;
+        } catch (RuntimeException e) {
+            release(pooled, !backend.isConnected(pooled.channel));
+            throw e;
+        }
+        return new FilterInputStream(stream) {
+            private final AtomicBoolean released = new AtomicBoolean();
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        release(pooled, false);
+                    }
+                }
+            }
+        };
+    }
+
+    private PooledChannel<C> borrow(Priority priority) {
+        if (closed) {
+            throw new FileTransferException("SFTP channel pool is closed");
+        }
+        boolean bulk = priority == Priority.BULK;
+        long deadline = System.currentTimeMillis() + config.getPoolBorrowTimeoutMillis();
+        if (bulk) {
+            acquire(bulkPermits, deadline);
+        }
+        try {
+            acquire(permits, deadline);
+        } catch (RuntimeException e) {
+            if (bulk) {
+                bulkPermits.release();
+            }
+            throw e;
+        }
+        try {
+            PooledChannel<C> pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    pooled.bulk = bulk;
+                    return pooled;
+                }
+                destroy(pooled);
+            }
+            PooledChannel<C> created = create();
+            created.bulk = bulk;
+            return created;
+        } catch (RuntimeException e) {
+            permits.release();
+            if (bulk) {
+                bulkPermits.release();
+            }
+            throw e;
+        }
+    }
+
+    private void acquire(Semaphore semaphore, long deadline) {
+        try {
+            if (!semaphore.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                throw new FileTransferException("Timed out waiting for an SFTP channel after "
+                        + config.getPoolBorrowTimeoutMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileTransferException("Interrupted while waiting for an SFTP channel", e);
+        }
+    }
+
+    private void release(PooledChannel<C> pooled, boolean broken) {
+        boolean bulk = pooled.bulk;
+        pooled.bulk = false;
+        try {
+            if (broken || closed || !backend.isConnected(pooled.channel)) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+            if (bulk) {
+                bulkPermits.release();
+            }
+        }
+    }
+
+    private PooledChannel<C> create() {
+        try {
+            C channel = backend.open();
+            open.incrementAndGet();
+            logger.info("Opened SFTP channel to {} ({} open)", config.getHostname(), open.get());
+            return new PooledChannel<>(channel);
+        } catch (IOException e) {
+            throw new FileTransferException("Failed to connect to SFTP server", e);
+        }
+    }
+
+    // Connection flags are free to check; a round trip is only spent on channels idle for a while
+    private boolean isHealthy(PooledChannel<C> pooled) {
+        if (!backend.isConnected(pooled.channel)) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pooled.lastUsed < config.getPoolValidateAfterMillis()) {
+            return true;
+        }
+        try {
+            backend.validate(pooled.channel);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Discarding SFTP channel that failed validation: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - config.getPoolIdleTimeoutMillis();
+        Iterator<PooledChannel<C>> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > config.getPoolMinIdle()) {
+            PooledChannel<C> pooled = oldestFirst.next();
+            if (pooled.lastUsed < cutoff && idle.remove(pooled)) {
+                logger.info("Evicting SFTP channel idle for more than {} ms", config.getPoolIdleTimeoutMillis());
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void destroy(PooledChannel<C> pooled) {
+        open.decrementAndGet();
+        backend.disconnect(pooled.channel);
+    }
+
+    public int openChannels() {
+        return open.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledChannel<C> pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        backend.close();
+        logger.info("SFTP channel pool closed");
+    }
+
+    private static final class PooledChannel<C> {
+        private final C channel;
+        private volatile long lastUsed = System.currentTimeMillis();
+        // Whether the current borrower holds a bulk permit as well
+        private boolean bulk;
+
+        PooledChannel(C channel) {
+            this.channel = channel;
+        }
+    }
+}
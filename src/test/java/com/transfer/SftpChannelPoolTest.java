@@ -0,0 +1,115 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SftpChannelPoolTest {
+
+    private static final class Channel {
+        volatile boolean connected = true;
+    }
+
+    // Only opens, checks and drops channels; the pool never calls the file operations here
+    private static final class FakeBackend implements SftpBackend<Channel> {
+        final List<Channel> opened = new CopyOnWriteArrayList<>();
+        final List<Channel> disconnected = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Channel open() {
+            Channel channel = new Channel();
+            opened.add(channel);
+            return channel;
+        }
+
+        @Override
+        public boolean isConnected(Channel channel) {
+            return channel.connected;
+        }
+
+        @Override
+        public void disconnect(Channel channel) {
+            channel.connected = false;
+            disconnected.add(channel);
+        }
+
+        @Override
+        public RemoteFileInfo stat(Channel channel, String path) {
+            return new RemoteFileInfo(path, 0, 0);
+        }
+
+        @Override
+        public List<RemoteFileInfo> list(Channel channel, String directory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void mkdir(Channel channel, String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream read(Channel channel, String path, long offset) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OutputStream write(Channel channel, String path, long offset) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove(Channel channel, String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rename(Channel channel, String from, String to) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static SftpChannelPool<Channel> pool(FakeBackend backend) {
+        return new SftpChannelPool<>(SftpConfig.builder().poolMaxSize(2).build(), backend);
+    }
+
+    @Test
+    public void runtimeFailureOnAHealthyChannelKeepsIt() throws IOException {
+        FakeBackend backend = new FakeBackend();
+        try (SftpChannelPool<Channel> pool = pool(backend)) {
+            assertThrows(IllegalArgumentException.class, () -> pool.execute(channel -> {
+                throw new IllegalArgumentException("bad path");
+            }));
+
+            Channel reused = pool.execute(channel -> channel);
+            assertEquals(1, backend.opened.size());
+            assertSame(backend.opened.get(0), reused);
+            assertEquals(List.of(), backend.disconnected);
+        }
+    }
+
+    @Test
+    public void runtimeFailureOnADroppedChannelDiscardsIt() throws IOException {
+        FakeBackend backend = new FakeBackend();
+        try (SftpChannelPool<Channel> pool = pool(backend)) {
+            assertThrows(IllegalStateException.class, () -> pool.execute(channel -> {
+                channel.connected = false;
+                throw new IllegalStateException("session is down");
+            }));
+
+            Channel next = pool.execute(channel -> channel);
+            assertEquals(2, backend.opened.size());
+            assertSame(backend.opened.get(1), next);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.transfer;
+
+import com.config.SftpConfig;
+
+/**
+ * Plugin point for SFTP client libraries. Engines are discovered with {@link java.util.ServiceLoader}
+ * (META-INF/services/com.transfer.SftpEngine) and picked per environment by SFTP_ENGINE.
+ */
+public interface SftpEngine {
+    // Value of SFTP_ENGINE that selects this engine
+    String name();
+
+    SftpBackend<?> create(SftpConfig config);
+}
@@ -0,0 +1,24 @@
+package com.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+public final class SftpEngines {
+    public static final String DEFAULT_ENGINE = "jsch";
+
+    private SftpEngines() {
+    }
+
+    public static SftpEngine forName(String name) {
+        String wanted = name != null ? name : DEFAULT_ENGINE;
+        List<String> available = new ArrayList<>();
+        for (SftpEngine engine : ServiceLoader.load(SftpEngine.class)) {
+            if (engine.name().equalsIgnoreCase(wanted)) {
+                return engine;
+            }
+            available.add(engine.name());
+        }
+        throw new FileTransferException("Unknown SFTP engine '" + wanted + "', available: " + available);
+    }
+}
@@ -1,115 +1,300 @@
 package com.transfer;
 
 import com.config.SftpConfig;
-import com.jcraft.jsch.*;
+import com.utils.GzipStreams;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Vector;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
 
-public class SftpService implements FileTransferService {
+/**
+ * SFTP file transfer on top of a pluggable {@link SftpEngine}. The engine only supplies channel
+ * primitives; pooling, retries, resume, compression, verification, bandwidth limits, the listing
+ * cache, bulk deletes and metrics are implemented here once, so switching SFTP_ENGINE changes nothing else.
+ */
+public class SftpService<C> implements FileTransferService {
     private static final Logger logger = LoggerFactory.getLogger(SftpService.class);
-    
-    private final JSch jsch;
-    private final Session session;
-    private ChannelSftp sftpChannel;
-    private final SftpConfig config;
-
-    public SftpService(SftpConfig config) {
-        this.config = config;
-        try {
-            jsch = new JSch();
-            jsch.addIdentity(config.getPpkFilePath());
-            
-            session = jsch.getSession(config.getUsername(), config.getHostname(), config.getPort());
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.setTimeout(config.getTimeout());
-            
-            connect();
-        } catch (JSchException e) {
-            throw new FileTransferException("Failed to initialize SFTP service", e);
-        }
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Below this many files per channel, borrowing another channel costs more than it saves
+    private static final int DELETES_PER_CHANNEL = 20;
+
+    private final SftpBackend<C> backend;
+    // Each call borrows its own channel, so one service can be shared by parallel scenarios
+    private final SftpChannelPool<C> channelPool;
+    private final RemoteListingCache listingCache;
+    // Only set when SFTP_CLEANUP=suite; uploads are then removed in one sweep at the end of the suite
+    private final CleanupManifest cleanupManifest;
+    private final TransferMetrics metrics;
+    private final TransferScheduler scheduler;
+    private final boolean gzipPayloads;
+    // Caller's path of each gzip payload this service uploaded, mapped to the "<name>.gz" it is stored under
+    private final Map<String, String> compressedUploads = new ConcurrentHashMap<>();
+    private final int compressionLevel;
+
+    public SftpService(SftpConfig config, SftpBackend<C> backend) {
+        this.backend = backend;
+        this.channelPool = new SftpChannelPool<>(config, backend);
+        this.metrics = new TransferMetrics(config.getEngine());
+        this.scheduler = new TransferScheduler(config.getBandwidthLimit(), config.getTransferBandwidthLimit(),
+                config.getSmallFileBytes());
+        this.gzipPayloads = config.isGzipPayloads();
+        this.compressionLevel = config.getCompressionLevel();
+        this.listingCache = new RemoteListingCache(config.isListCacheEnabled(), config.getListCacheMaxAgeMillis());
+        this.cleanupManifest = config.isTrackCreatedFiles() ? new CleanupManifest() : null;
+        channelPool.prestart();
+        logger.info("SFTP channel pool ready for {} using {} (max {} channels)", config.getHostname(),
+                config.getEngine(), config.getPoolMaxSize());
     }
 
-    private void connect() throws JSchException {
-        try {
-            if (!session.isConnected()) {
-                session.connect();
-            }
-            
-            Channel channel = session.openChannel("sftp");
-            channel.connect();
-            sftpChannel = (ChannelSftp) channel;
-            
-            logger.info("Successfully connected to SFTP server: {}", config.getHostname());
-        } catch (JSchException e) {
-            throw new FileTransferException("Failed to connect to SFTP server", e);
-        }
+    // Builds the service on the engine named by SFTP_ENGINE
+    public static SftpService<?> create(SftpConfig config) {
+        return create(config, SftpEngines.forName(config.getEngine()).create(config));
+    }
+
+    private static <C> SftpService<C> create(SftpConfig config, SftpBackend<C> backend) {
+        return new SftpService<>(config, backend);
+    }
+
+    public TransferMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
-    public boolean uploadFile(Path sourcePath, String remoteDirectory) {
+    public boolean uploadFile(Path sourcePath, String remoteDirectory, String remoteName) {
+        long start = System.nanoTime();
         try {
-            ensureConnected();
-            createDirectoryIfNotExists(remoteDirectory);
-            
-            String remoteFilePath = remoteDirectory + "/" + sourcePath.getFileName();
-            logger.info("Uploading file to: {}", remoteFilePath);
-            
-            sftpChannel.put(sourcePath.toString(), remoteFilePath);
-            return true;
-        } catch (SftpException e) {
+            // Small files take the channel the pool keeps back from bulk transfers
+            TransferScheduler.Priority priority = scheduler.priorityOf(Files.size(sourcePath));
+            boolean uploaded = channelPool.execute(priority, channel -> {
+                createDirectoryIfNotExists(channel, remoteDirectory);
+
+                String remoteFilePath = remoteDirectory + "/" + remoteName;
+                if (gzipPayloads && !remoteName.endsWith(GZIP_SUFFIX)) {
+                    remoteFilePath += GZIP_SUFFIX;
+                }
+                logger.info("Uploading file to: {}", remoteFilePath);
+
+                TransferDigest digest = TransferDigest.start();
+                if (gzipPayloads) {
+                    gzipUpload(channel, sourcePath, remoteFilePath, digest);
+                    compressedUploads.put(remoteDirectory + "/" + remoteName, remoteFilePath);
+                } else if (TransferCheckpoint.shouldResume(Files.size(sourcePath))) {
+                    resumableUpload(channel, sourcePath, remoteFilePath, digest);
+                } else {
+                    try (OutputStream out = digesting(
+                            scheduler.throttle(backend.write(channel, remoteFilePath, 0), Files.size(sourcePath)),
+                            digest)) {
+                        Files.copy(sourcePath, out);
+                    }
+                }
+                verify(channel, remoteFilePath, digest);
+                listingCache.invalidate(remoteDirectory);
+                if (cleanupManifest != null) {
+                    cleanupManifest.record(remoteFilePath);
+                }
+                return true;
+            });
+            metrics.record("upload", sourcePath.toFile().length(), start, true);
+            return uploaded;
+        } catch (IOException e) {
+            metrics.record("upload", 0, start, false);
             logger.error("Failed to upload file: {}", sourcePath, e);
             throw new FileTransferException("File upload failed", e);
         }
     }
 
     @Override
-    public boolean downloadFile(String remoteFilePath, Path localDestination) {
+    public boolean downloadFile(String requestedPath, Path localDestination) {
+        long start = System.nanoTime();
+        // A compressed upload is read from its stored name and saved under the one the caller used
+        String remoteFilePath = storedPath(requestedPath);
+        Path target = localTarget(requestedPath, localDestination);
         try {
-            ensureConnected();
-            logger.info("Downloading file from: {} to: {}", remoteFilePath, localDestination);
-            
-            sftpChannel.get(remoteFilePath, localDestination.toString());
+            // The size decides the priority, so it is looked up before borrowing a channel for the transfer
+            RemoteFileInfo info = channelPool.execute(channel -> backend.stat(channel, remoteFilePath));
+            if (info == null) {
+                throw new NoSuchFileException(remoteFilePath);
+            }
+            long bytes = channelPool.execute(scheduler.priorityOf(info.size()), channel -> {
+                logger.info("Downloading file from: {} to: {}", remoteFilePath, localDestination);
+
+                TransferDigest digest = TransferDigest.start();
+                if (shouldGunzip(remoteFilePath, target)) {
+                    gunzipDownload(channel, remoteFilePath, info.size(), target, digest);
+                } else if (TransferCheckpoint.shouldResume(info.size())) {
+                    resumableDownload(channel, remoteFilePath, info, target, digest);
+                } else {
+                    try (InputStream in = digesting(
+                            scheduler.throttle(backend.read(channel, remoteFilePath, 0), info.size()), digest)) {
+                        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                if (digest != null) {
+                    digest.verify(remoteFilePath, info.size(),
+                            digest.wantsChecksum() ? backend.checksum(channel, remoteFilePath) : null);
+                }
+                return info.size();
+            });
+            metrics.record("download", bytes, start, true);
             return true;
-        } catch (SftpException e) {
+        } catch (IOException e) {
+            metrics.record("download", 0, start, false);
             logger.error("Failed to download file: {}", remoteFilePath, e);
             throw new FileTransferException("File download failed", e);
         }
     }
 
     @Override
-    public boolean deleteFile(String remoteFilePath) {
+    public boolean deleteFile(String requestedPath) {
+        long start = System.nanoTime();
+        String remoteFilePath = storedPath(requestedPath);
         try {
-            ensureConnected();
-            logger.info("Deleting file: {}", remoteFilePath);
-            
-            sftpChannel.rm(remoteFilePath);
-            return true;
-        } catch (SftpException e) {
+            boolean deleted = channelPool.execute(channel -> {
+                logger.info("Deleting file: {}", remoteFilePath);
+
+                backend.remove(channel, remoteFilePath);
+                compressedUploads.remove(requestedPath);
+                listingCache.invalidateParentOf(remoteFilePath);
+                if (cleanupManifest != null) {
+                    cleanupManifest.forget(remoteFilePath);
+                }
+                return true;
+            });
+            metrics.record("delete", 0, start, true);
+            return deleted;
+        } catch (IOException e) {
+            metrics.record("delete", 0, start, false);
             logger.error("Failed to delete file: {}", remoteFilePath, e);
             throw new FileTransferException("File deletion failed", e);
         }
     }
 
+    // Splits the paths across pooled channels; each channel removes its share back to back,
+    // so the batch costs one borrow per channel rather than one per file
+    @Override
+    public int deleteFiles(List<String> remoteFilePaths) {
+        if (remoteFilePaths.isEmpty()) {
+            return 0;
+        }
+        int channels = Math.min(BatchTransfers.defaultConcurrency(),
+                (remoteFilePaths.size() + DELETES_PER_CHANNEL - 1) / DELETES_PER_CHANNEL);
+        List<List<String>> shares = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, channels); i++) {
+            shares.add(new ArrayList<>());
+        }
+        for (int i = 0; i < remoteFilePaths.size(); i++) {
+            shares.get(i % shares.size()).add(remoteFilePaths.get(i));
+        }
+
+        long start = System.nanoTime();
+        List<Integer> deleted = BatchTransfers.fanOut("delete", shares, shares.size(), this::deleteShare);
+        int total = deleted.stream().mapToInt(Integer::intValue).sum();
+        metrics.record("bulk-delete", 0, start, true);
+        logger.info("Deleted {} of {} files in {} ms over {} channels", total, remoteFilePaths.size(),
+                (System.nanoTime() - start) / 1_000_000, shares.size());
+        return total;
+    }
+
+    private int deleteShare(List<String> remoteFilePaths) {
+        try {
+            return channelPool.execute(channel -> {
+                int deleted = 0;
+                for (String requestedPath : remoteFilePaths) {
+                    String remoteFilePath = storedPath(requestedPath);
+                    try {
+                        backend.remove(channel, remoteFilePath);
+                        compressedUploads.remove(requestedPath);
+                        deleted++;
+                    } catch (NoSuchFileException e) {
+                        // Already gone, which is all a cleanup needs
+                    } catch (IOException e) {
+                        if (!backend.isConnected(channel)) {
+                            throw e;
+                        }
+                        logger.warn("Failed to delete file: {} ({})", remoteFilePath, e.getMessage());
+                    }
+                    listingCache.invalidateParentOf(remoteFilePath);
+                    if (cleanupManifest != null) {
+                        cleanupManifest.forget(remoteFilePath);
+                    }
+                }
+                return deleted;
+            });
+        } catch (IOException e) {
+            logger.warn("Bulk delete failed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public int sweepCreatedFiles() {
+        if (cleanupManifest == null) {
+            return 0;
+        }
+        List<String> created = cleanupManifest.drain();
+        logger.info("Sweeping {} files uploaded during the suite", created.size());
+        return deleteFiles(created);
+    }
+
     @Override
     public List<String> listFiles(String remoteDirectory) {
+        return listDirectory(remoteDirectory, true).names();
+    }
+
+    @Override
+    public List<String> listFiles(String remoteDirectory, String glob) {
+        return listDirectory(remoteDirectory, true).names(glob);
+    }
+
+    @Override
+    public DirectoryListing listDirectory(String remoteDirectory, boolean allowCached) {
+        long start = System.nanoTime();
         try {
-            ensureConnected();
-            List<String> files = new ArrayList<>();
-            
-            Vector<ChannelSftp.LsEntry> fileList = sftpChannel.ls(remoteDirectory);
-            for (ChannelSftp.LsEntry entry : fileList) {
-                if (!entry.getAttrs().isDir()) {
-                    files.add(entry.getFilename());
+            DirectoryListing result = channelPool.execute(channel -> {
+                RemoteFileInfo directory = backend.stat(channel, remoteDirectory);
+                if (directory == null) {
+                    throw new NoSuchFileException(remoteDirectory);
                 }
-            }
-            return files;
-        } catch (SftpException e) {
+                long modified = directory.modifiedSeconds();
+                if (allowCached) {
+                    DirectoryListing cached = listingCache.lookup(remoteDirectory, modified);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+
+                // Taken before the read, so anything changed during it counts as newer than the listing
+                long listedAt = System.currentTimeMillis();
+                Map<String, RemoteFileInfo> files = new LinkedHashMap<>();
+                for (RemoteFileInfo file : backend.list(channel, remoteDirectory)) {
+                    files.put(file.name(), file);
+                }
+
+                DirectoryListing listing = new DirectoryListing(remoteDirectory, modified, listedAt,
+                        Collections.unmodifiableMap(files));
+                listingCache.store(listing);
+                return listing;
+            });
+            metrics.record("list", 0, start, true);
+            return result;
+        } catch (IOException e) {
+            metrics.record("list", 0, start, false);
             logger.error("Failed to list files in directory: {}", remoteDirectory, e);
             throw new FileTransferException("Failed to list files", e);
         }
@@ -118,45 +303,180 @@ public class SftpService implements FileTransferService {
     @Override
     public boolean exists(String remoteFilePath) {
         try {
-            ensureConnected();
-            sftpChannel.lstat(remoteFilePath);
-            return true;
-        } catch (SftpException e) {
+            return channelPool.execute(channel -> backend.stat(channel, storedPath(remoteFilePath)) != null);
+        } catch (IOException e) {
             return false;
         }
     }
 
-    private void ensureConnected() {
+    @Override
+    public InputStream openRemoteFile(String remoteFilePath) {
         try {
-            if (!session.isConnected() || !sftpChannel.isConnected()) {
-                connect();
+            String storedPath = storedPath(remoteFilePath);
+            logger.info("Streaming file from: {}", storedPath);
+            return channelPool.openStream(channel -> backend.read(channel, storedPath, 0));
+        } catch (IOException e) {
+            logger.error("Failed to open remote file: {}", remoteFilePath, e);
+            throw new FileTransferException("Failed to open remote file", e);
+        }
+    }
+
+    // Name a file is stored under: "<name>.gz" for gzip payloads uploaded here, otherwise the name itself
+    private String storedPath(String remoteFilePath) {
+        return compressedUploads.getOrDefault(remoteFilePath, remoteFilePath);
+    }
+
+    // Wraps a transfer stream so the integrity check is computed as the bytes pass
+    private static OutputStream digesting(OutputStream out, TransferDigest digest) {
+        return digest != null ? digest.wrap(out) : out;
+    }
+
+    private static InputStream digesting(InputStream in, TransferDigest digest) {
+        return digest != null ? digest.wrap(in) : in;
+    }
+
+    // Checks the uploaded file against what was streamed; the server hashes its copy, nothing is read back
+    private void verify(C channel, String remoteFilePath, TransferDigest digest) throws IOException {
+        if (digest == null) {
+            return;
+        }
+        RemoteFileInfo info = backend.stat(channel, remoteFilePath);
+        digest.verify(remoteFilePath, info != null ? info.size() : -1,
+                digest.wantsChecksum() ? backend.checksum(channel, remoteFilePath) : null);
+    }
+
+    // Compresses while uploading, so only the gzip stream crosses the network
+    private void gzipUpload(C channel, Path sourcePath, String remoteFilePath, TransferDigest digest)
+            throws IOException {
+        try (OutputStream remote = digesting(
+                scheduler.throttle(backend.write(channel, remoteFilePath, 0), Files.size(sourcePath)), digest);
+             GZIPOutputStream out = new GZIPOutputStream(remote, BUFFER_SIZE) {
+                 {
+                     def.setLevel(compressionLevel);
+                 }
+             }) {
+            Files.copy(sourcePath, out);
+        }
+    }
+
+    // Compressed payloads (and .gz remotes) saved under a plain local name are decompressed on the way in
+    private boolean shouldGunzip(String remoteFilePath, Path target) {
+        return (gzipPayloads || remoteFilePath.endsWith(GZIP_SUFFIX))
+                && !target.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    private void gunzipDownload(C channel, String remoteFilePath, long size, Path target, TransferDigest digest)
+            throws IOException {
+        try (InputStream remote = digesting(scheduler.throttle(backend.read(channel, remoteFilePath, 0), size), digest);
+             // Sniffed rather than assumed, so files the system under test wrote uncompressed pass through
+             InputStream in = GzipStreams.decompressIfGzipped(remote)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            // The digest covers the compressed file, so count anything the inflater left unread
+            remote.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    // Uploads into "<file>.part", continuing a checkpointed partial upload, and renames it into place when done
+    private void resumableUpload(C channel, Path sourcePath, String remoteFilePath, TransferDigest digest)
+            throws IOException {
+        String partPath = remoteFilePath + TransferCheckpoint.PART_SUFFIX;
+        long size = Files.size(sourcePath);
+        long modified = Files.getLastModifiedTime(sourcePath).toMillis();
+        TransferCheckpoint checkpoint = TransferCheckpoint.open("upload",
+                sourcePath.toAbsolutePath().toString(), remoteFilePath);
+
+        RemoteFileInfo partial = backend.stat(channel, partPath);
+        long offset = checkpoint.resumeOffset(size, modified, partial != null ? partial.size() : -1);
+        if (offset > 0 && TransferCheckpoint.verifyChecksum()) {
+            long from = TransferCheckpoint.verifyFrom(offset);
+            try (InputStream local = TransferCheckpoint.openLocal(sourcePath, from);
+                 InputStream remote = backend.read(channel, partPath, from)) {
+                if (!TransferCheckpoint.sameBytes(local, remote, offset)) {
+                    logger.warn("Partial upload {} does not match {}, restarting", partPath, sourcePath);
+                    offset = 0;
+                }
             }
-        } catch (JSchException e) {
-            throw new FileTransferException("Failed to reconnect to SFTP server", e);
         }
+
+        if (offset > 0) {
+            checkpoint.resume(offset);
+        } else {
+            checkpoint.start(size, modified);
+        }
+        if (digest != null) {
+            digest.include(sourcePath, offset);
+        }
+        try (InputStream in = TransferCheckpoint.openLocal(sourcePath, offset);
+             OutputStream out = digesting(scheduler.throttle(backend.write(channel, partPath, offset), size), digest)) {
+            checkpoint.copy(in, out);
+        }
+
+        if (backend.stat(channel, remoteFilePath) != null) {
+            backend.remove(channel, remoteFilePath);
+        }
+        backend.rename(channel, partPath, remoteFilePath);
+        checkpoint.complete();
     }
 
-    private void createDirectoryIfNotExists(String path) throws SftpException {
-        try {
-            sftpChannel.lstat(path);
-        } catch (SftpException e) {
-            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
-                sftpChannel.mkdir(path);
-            } else {
-                throw e;
+    // Downloads into a local "<file>.part", continuing a checkpointed partial download
+    private void resumableDownload(C channel, String remoteFilePath, RemoteFileInfo info, Path target,
+                                   TransferDigest digest) throws IOException {
+        Path partPath = target.resolveSibling(target.getFileName() + TransferCheckpoint.PART_SUFFIX);
+        long size = info.size();
+        long modified = info.modifiedSeconds() * 1000L;
+        TransferCheckpoint checkpoint = TransferCheckpoint.open("download",
+                remoteFilePath, target.toAbsolutePath().toString());
+
+        long offset = checkpoint.resumeOffset(size, modified, Files.exists(partPath) ? Files.size(partPath) : 0);
+        if (offset > 0 && TransferCheckpoint.verifyChecksum()) {
+            long from = TransferCheckpoint.verifyFrom(offset);
+            try (InputStream local = TransferCheckpoint.openLocal(partPath, from);
+                 InputStream remote = backend.read(channel, remoteFilePath, from)) {
+                if (!TransferCheckpoint.sameBytes(local, remote, offset)) {
+                    logger.warn("Partial download {} does not match {}, restarting", partPath, remoteFilePath);
+                    offset = 0;
+                }
             }
         }
+
+        if (offset > 0) {
+            checkpoint.resume(offset);
+        } else {
+            checkpoint.start(size, modified);
+        }
+        if (digest != null) {
+            digest.include(partPath, offset);
+        }
+        try (InputStream in = digesting(scheduler.throttle(backend.read(channel, remoteFilePath, offset), size),
+                digest);
+             OutputStream out = offset > 0
+                     ? Files.newOutputStream(partPath, StandardOpenOption.APPEND)
+                     : Files.newOutputStream(partPath)) {
+            checkpoint.copy(in, out);
+        }
+
+        Files.move(partPath, target, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint.complete();
+    }
+
+    // A directory destination receives the file under its remote name
+    private static Path localTarget(String remoteFilePath, Path localDestination) {
+        return Files.isDirectory(localDestination)
+                ? localDestination.resolve(remoteFilePath.substring(remoteFilePath.lastIndexOf('/') + 1))
+                : localDestination;
+    }
+
+    private void createDirectoryIfNotExists(C channel, String path) throws IOException {
+        if (backend.stat(channel, path) == null) {
+            backend.mkdir(channel, path);
+        }
     }
 
     @Override
     public void close() {
         try {
-            if (sftpChannel != null && sftpChannel.isConnected()) {
-                sftpChannel.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
+            channelPool.close();
+            metrics.log();
             logger.info("SFTP connection closed successfully");
         } catch (Exception e) {
             logger.error("Error closing SFTP connection", e);
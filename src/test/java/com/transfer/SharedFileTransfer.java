@@ -0,0 +1,44 @@
+package com.transfer;
+
+import com.config.SftpEnvironmentConfig;
+import com.config.SharedResource;
+import com.config.SuiteLifecycle;
+
+/**
+ * Suite-wide SFTP session. Connected on first use and disconnected once at the end of the suite;
+ * scenarios look it up with {@link #get()} instead of opening their own connection.
+ */
+public final class SharedFileTransfer {
+    private static final SharedResource<FileTransferService> session = SuiteLifecycle.register(
+            new SharedResource<FileTransferService>("SFTP session",
+                    () -> new SecureFileTransfer(SftpEnvironmentConfig.loadConfig()),
+                    SharedFileTransfer::closeSession)
+                    // Channels may first open after this session was created, and the close sweep still uses them
+                    .dependsOn(MinaSessions.sharedResource(), LocalSftpServer.sharedResource()));
+
+    private SharedFileTransfer() {
+    }
+
+    public static FileTransferService get() {
+        return session.get();
+    }
+
+    // The open session, or null when nothing has used SFTP yet
+    public static FileTransferService getIfInitialized() {
+        return session.getIfInitialized();
+    }
+
+    public static void close() {
+        session.close();
+    }
+
+    private static void closeSession(FileTransferService service) {
+        try {
+            // End-of-suite cleanup of everything the run uploaded (SFTP_CLEANUP=suite)
+            service.sweepCreatedFiles();
+            service.close();
+        } catch (Exception e) {
+            throw new FileTransferException("Failed to close SFTP session", e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.transfer;
+
+import com.config.EnvProfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Durable record of how far a large transfer got, so an interrupted upload or download can continue
+ * from the partial file instead of byte 0. The checkpoint ties the partial file to one version of
+ * the source (size and modification time); a changed source always restarts from the beginning.
+ */
+public final class TransferCheckpoint {
+    private static final Logger logger = LoggerFactory.getLogger(TransferCheckpoint.class);
+
+    // Partial files carry this suffix until the transfer completes and they are renamed into place
+    public static final String PART_SUFFIX = ".part";
+
+    private static final Path CHECKPOINT_DIR = Paths.get(
+            EnvProfile.get("SFTP_CHECKPOINT_DIR", "target/transfer-checkpoints"));
+    // Files smaller than this are transferred in one go, without a partial file or checkpoint
+    private static final long RESUME_MIN_BYTES = EnvProfile.getLong("SFTP_RESUME_MIN_BYTES", 64L * 1024 * 1024);
+    private static final long CHECKPOINT_INTERVAL_BYTES = EnvProfile.getLong("SFTP_CHECKPOINT_INTERVAL_BYTES",
+            8L * 1024 * 1024);
+    // "size" trusts the partial file's length; "checksum" also compares SHA-256 of the bytes just
+    // before the resume offset on both sides
+    private static final boolean VERIFY_CHECKSUM = "checksum".equalsIgnoreCase(
+            EnvProfile.get("SFTP_RESUME_VERIFY", "size"));
+    private static final long VERIFY_BYTES = EnvProfile.getLong("SFTP_RESUME_VERIFY_BYTES", 1024 * 1024);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final String source;
+    private final String target;
+    private long sourceSize = -1;
+    private long sourceModified = -1;
+    private long offset;
+    private long lastSaved;
+
+    private TransferCheckpoint(Path file, String source, String target) {
+        this.file = file;
+        this.source = source;
+        this.target = target;
+    }
+
+    public static boolean shouldResume(long size) {
+        return size >= RESUME_MIN_BYTES;
+    }
+
+    // Loads the checkpoint for this transfer, or an empty one when none was saved
+    public static TransferCheckpoint open(String direction, String source, String target) {
+        String id = sha256Hex((direction + "|" + source + "|" + target).getBytes(StandardCharsets.UTF_8));
+        TransferCheckpoint checkpoint = new TransferCheckpoint(CHECKPOINT_DIR.resolve(id + ".properties"), source, target);
+        if (Files.exists(checkpoint.file)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint.file)) {
+                properties.load(reader);
+                checkpoint.sourceSize = Long.parseLong(properties.getProperty("sourceSize", "-1"));
+                checkpoint.sourceModified = Long.parseLong(properties.getProperty("sourceModified", "-1"));
+                checkpoint.offset = Long.parseLong(properties.getProperty("offset", "0"));
+            } catch (IOException | NumberFormatException e) {
+                logger.warn("Ignoring unreadable transfer checkpoint {}: {}", checkpoint.file, e.getMessage());
+                checkpoint.sourceSize = -1;
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Offset to continue from given the partial file's current size, or 0 when it has to restart:
+     * no checkpoint, a different source version, or a partial file longer than the source.
+     */
+    public long resumeOffset(long size, long modified, long partialSize) {
+        if (sourceSize != size || sourceModified != modified || partialSize <= 0 || partialSize > size) {
+            return 0;
+        }
+        return partialSize;
+    }
+
+    public static boolean verifyChecksum() {
+        return VERIFY_CHECKSUM;
+    }
+
+    // Position where the checksum comparison window starts for a resume at the given offset
+    public static long verifyFrom(long offset) {
+        return Math.max(0, offset - VERIFY_BYTES);
+    }
+
+    // Compares the window [verifyFrom(offset), offset) read from both sides
+    public static boolean sameBytes(InputStream local, InputStream remote, long offset) throws IOException {
+        long length = offset - verifyFrom(offset);
+        return Arrays.equals(digest(local, length), digest(remote, length));
+    }
+
+    // Local file stream starting at the given byte
+    public static InputStream openLocal(Path path, long position) throws IOException {
+        FileChannel channel = FileChannel.open(path);
+        try {
+            return Channels.newInputStream(channel.position(position));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Records the source version a fresh transfer starts from
+    public void start(long size, long modified) {
+        this.sourceSize = size;
+        this.sourceModified = modified;
+        this.offset = 0;
+        this.lastSaved = 0;
+        save();
+    }
+
+    public void resume(long offset) {
+        this.offset = offset;
+        this.lastSaved = offset;
+        logger.info("Resuming transfer of {} to {} at byte {} of {}", source, target, offset, sourceSize);
+    }
+
+    /**
+     * Copies the rest of the transfer, saving the checkpoint every SFTP_CHECKPOINT_INTERVAL_BYTES.
+     * Returns the number of bytes copied by this call.
+     */
+    public long copy(InputStream in, OutputStream out, int bufferSize) throws IOException {
+        byte[] buffer = new byte[Math.max(bufferSize, COPY_BUFFER_SIZE)];
+        long copied = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            copied += read;
+            offset += read;
+            if (offset - lastSaved >= CHECKPOINT_INTERVAL_BYTES) {
+                // Saved progress is for diagnosis; a resume continues from the partial file's real size
+                out.flush();
+                save();
+                lastSaved = offset;
+            }
+        }
+        return copied;
+    }
+
+    public long copy(InputStream in, OutputStream out) throws IOException {
+        return copy(in, out, COPY_BUFFER_SIZE);
+    }
+
+    public void complete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete transfer checkpoint {}", file, e);
+        }
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        properties.setProperty("target", target);
+        properties.setProperty("sourceSize", Long.toString(sourceSize));
+        properties.setProperty("sourceModified", Long.toString(sourceModified));
+        properties.setProperty("offset", Long.toString(offset));
+        try {
+            Files.createDirectories(file.getParent());
+            // Write then rename, so a crash mid-save never leaves a truncated checkpoint behind
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // A missing checkpoint only costs a restart, so it must not fail the transfer itself
+            logger.warn("Failed to save transfer checkpoint {}", file, e);
+        }
+    }
+
+    private static byte[] digest(InputStream in, long length) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new IOException("Stream ended " + remaining + " bytes before the resume offset");
+            }
+            digest.update(buffer, 0, read);
+            remaining -= read;
+        }
+        return digest.digest();
+    }
+
+    private static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransferCheckpointTest {
+    private static final int SIZE = 300 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] content() {
+        byte[] data = new byte[SIZE];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void checkpointResumesOnlyTheSameSourceVersion() {
+        String source = tempDir.resolve("checkpointed.bin").toString();
+        TransferCheckpoint checkpoint = TransferCheckpoint.open("upload", source, "incoming/checkpointed.bin");
+        assertEquals(0, checkpoint.resumeOffset(SIZE, 1000, SIZE / 2));
+
+        checkpoint.start(SIZE, 1000);
+        try {
+            TransferCheckpoint reopened = TransferCheckpoint.open("upload", source, "incoming/checkpointed.bin");
+            assertEquals(SIZE / 2, reopened.resumeOffset(SIZE, 1000, SIZE / 2));
+            assertEquals(0, reopened.resumeOffset(SIZE, 2000, SIZE / 2));
+            assertEquals(0, reopened.resumeOffset(SIZE + 1, 1000, SIZE / 2));
+            assertEquals(0, reopened.resumeOffset(SIZE, 1000, SIZE + 1));
+            assertEquals(0, reopened.resumeOffset(SIZE, 1000, 0));
+        } finally {
+            checkpoint.complete();
+        }
+        assertEquals(0, TransferCheckpoint.open("upload", source, "incoming/checkpointed.bin")
+                .resumeOffset(SIZE, 1000, SIZE / 2));
+    }
+
+    @Test
+    public void sameBytesComparesTheWindowBeforeTheOffset() throws Exception {
+        byte[] local = content();
+        byte[] remote = local.clone();
+        long offset = SIZE / 2;
+        long from = TransferCheckpoint.verifyFrom(offset);
+
+        assertTrue(TransferCheckpoint.sameBytes(window(local, from), window(remote, from), offset));
+
+        remote[(int) offset - 1] ^= 1;
+        assertFalse(TransferCheckpoint.sameBytes(window(local, from), window(remote, from), offset));
+    }
+
+    private static InputStream window(byte[] data, long from) {
+        return new ByteArrayInputStream(data, (int) from, data.length - (int) from);
+    }
+}
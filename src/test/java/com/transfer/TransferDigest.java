@@ -0,0 +1,161 @@
+package com.transfer;
+
+import com.config.EnvProfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Integrity check computed while a file streams through a transfer, so confirming it arrived intact
+ * needs no second download. SFTP_VERIFY=size compares the byte count with the remote size;
+ * SFTP_VERIFY=sha256 also digests the stream and compares it with the server's own hash when the
+ * server offers the SFTP check-file extension, falling back to the size otherwise.
+ */
+public final class TransferDigest {
+    private static final Logger logger = LoggerFactory.getLogger(TransferDigest.class);
+
+    private static final String MODE = EnvProfile.get("SFTP_VERIFY", "none").toLowerCase();
+    // Name the check-file extension uses for SHA-256
+    public static final String CHECK_FILE_ALGORITHM = "sha256";
+
+    private final MessageDigest digest;
+    private long bytes;
+
+    private TransferDigest(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    // A digest for one transfer, or null when SFTP_VERIFY=none
+    public static TransferDigest start() {
+        return forMode(MODE);
+    }
+
+    static TransferDigest forMode(String mode) {
+        switch (mode) {
+            case "none":
+                return null;
+            case "size":
+                return new TransferDigest(null);
+            case "sha256":
+                try {
+                    return new TransferDigest(MessageDigest.getInstance("SHA-256"));
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 not available", e);
+                }
+            default:
+                throw new IllegalStateException("Unknown SFTP_VERIFY mode: " + mode);
+        }
+    }
+
+    public boolean wantsChecksum() {
+        return digest != null;
+    }
+
+    public OutputStream wrap(OutputStream out) {
+        OutputStream target = digest != null ? new DigestOutputStream(out, digest) : out;
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                target.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] buffer, int off, int len) throws IOException {
+                target.write(buffer, off, len);
+                bytes += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                target.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                target.close();
+            }
+        };
+    }
+
+    public InputStream wrap(InputStream in) {
+        InputStream source = digest != null ? new DigestInputStream(in, digest) : in;
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                int b = source.read();
+                if (b >= 0) {
+                    bytes++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int read = source.read(buffer, off, len);
+                if (read > 0) {
+                    bytes += read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    // Accounts for the first bytes of a resumed transfer, which were sent by an earlier attempt
+    public void include(Path local, long length) throws IOException {
+        if (digest != null) {
+            try (InputStream in = TransferCheckpoint.openLocal(local, 0)) {
+                byte[] buffer = new byte[64 * 1024];
+                long remaining = length;
+                int read;
+                while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                    digest.update(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+        bytes += length;
+    }
+
+    /**
+     * Compares what was streamed with the remote file: its size always, its content hash when the
+     * server returned one. Throws when they differ.
+     */
+    public void verify(String remoteFilePath, long remoteSize, byte[] remoteChecksum) throws IOException {
+        if (remoteSize != bytes) {
+            throw new IOException("Integrity check failed for " + remoteFilePath + ": transferred "
+                    + bytes + " bytes but the remote file has " + remoteSize);
+        }
+        if (digest == null) {
+            return;
+        }
+        byte[] local = digest.digest();
+        if (remoteChecksum == null) {
+            logger.debug("No server-side checksum for {}, verified size only (sha256 {})", remoteFilePath,
+                    HexFormat.of().formatHex(local));
+            return;
+        }
+        if (!Arrays.equals(local, remoteChecksum)) {
+            throw new IOException("Integrity check failed for " + remoteFilePath + ": sha256 "
+                    + HexFormat.of().formatHex(local) + " but the server reports "
+                    + HexFormat.of().formatHex(remoteChecksum));
+        }
+        logger.info("Verified {} ({} bytes, sha256 {})", remoteFilePath, bytes, HexFormat.of().formatHex(local));
+    }
+}
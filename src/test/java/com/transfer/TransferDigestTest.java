@@ -0,0 +1,96 @@
+package com.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransferDigestTest {
+    private static final int SIZE = 300 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] content() {
+        byte[] data = new byte[SIZE];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] sha256(byte[] data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+
+    @Test
+    public void modeNoneDisablesVerification() {
+        assertNull(TransferDigest.forMode("none"));
+        assertThrows(IllegalStateException.class, () -> TransferDigest.forMode("md5"));
+    }
+
+    @Test
+    public void sizeModeComparesByteCountOnly() throws Exception {
+        TransferDigest digest = TransferDigest.forMode("size");
+        assertFalse(digest.wantsChecksum());
+        try (OutputStream out = digest.wrap(OutputStream.nullOutputStream())) {
+            out.write(content());
+        }
+
+        assertDoesNotThrow(() -> digest.verify("file", SIZE, null));
+        assertThrows(IOException.class, () -> digest.verify("file", SIZE - 1, null));
+    }
+
+    @Test
+    public void sha256MatchesStreamedContent() throws Exception {
+        byte[] data = content();
+        TransferDigest digest = TransferDigest.forMode("sha256");
+        assertTrue(digest.wantsChecksum());
+        try (InputStream in = digest.wrap(new ByteArrayInputStream(data))) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        assertDoesNotThrow(() -> digest.verify("file", SIZE, sha256(data)));
+    }
+
+    @Test
+    public void sha256MismatchFails() throws Exception {
+        byte[] data = content();
+        TransferDigest digest = TransferDigest.forMode("sha256");
+        try (OutputStream out = digest.wrap(OutputStream.nullOutputStream())) {
+            out.write(data);
+        }
+        data[SIZE / 2] ^= 1;
+        byte[] other = sha256(data);
+
+        IOException e = assertThrows(IOException.class, () -> digest.verify("file", SIZE, other));
+        assertTrue(e.getMessage().contains("sha256"));
+    }
+
+    @Test
+    public void resumedTransferHashesTheWholeFile() throws Exception {
+        byte[] data = content();
+        Path local = Files.write(tempDir.resolve("source.bin"), data);
+        int offset = SIZE / 3;
+
+        // The first third went over in an earlier attempt; only the rest streams now
+        TransferDigest digest = TransferDigest.forMode("sha256");
+        digest.include(local, offset);
+        try (InputStream in = digest.wrap(TransferCheckpoint.openLocal(local, offset))) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        assertDoesNotThrow(() -> digest.verify("file", SIZE, sha256(data)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.transfer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation counters for one {@link SftpService}: calls, failures, bytes moved and time spent.
+ * Kept for the whole service lifetime and logged as a summary when the service closes, so the
+ * engines can be compared on the same suite.
+ */
+public class TransferMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(TransferMetrics.class);
+
+    private final String engine;
+    private final Map<String, Counters> operations = new ConcurrentSkipListMap<>();
+
+    public TransferMetrics(String engine) {
+        this.engine = engine;
+    }
+
+    public void record(String operation, long bytes, long startNanos, boolean success) {
+        Counters counters = operations.computeIfAbsent(operation, key -> new Counters());
+        counters.calls.increment();
+        if (!success) {
+            counters.failures.increment();
+        }
+        counters.bytes.add(bytes);
+        counters.nanos.add(System.nanoTime() - startNanos);
+    }
+
+    public long calls(String operation) {
+        Counters counters = operations.get(operation);
+        return counters != null ? counters.calls.sum() : 0;
+    }
+
+    public long bytes(String operation) {
+        Counters counters = operations.get(operation);
+        return counters != null ? counters.bytes.sum() : 0;
+    }
+
+    public void log() {
+        if (operations.isEmpty()) {
+            return;
+        }
+        operations.forEach((operation, counters) -> {
+            long millis = counters.nanos.sum() / 1_000_000;
+            long bytes = counters.bytes.sum();
+            logger.info("SFTP [{}] {}: {} calls, {} failed, {} bytes, {} ms total{}", engine, operation,
+                    counters.calls.sum(), counters.failures.sum(), bytes, millis,
+                    bytes > 0 && millis > 0 ? String.format(", %.1f KB/s", bytes * 1000.0 / 1024 / millis) : "");
+        });
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -0,0 +1,6 @@
+package com.transfer;
+
+// Outcome of one file in a batch transfer; error is null when the transfer succeeded
+public record TransferResult(String source, String target, boolean success, long bytes, long durationMillis,
+                             String error) {
+}
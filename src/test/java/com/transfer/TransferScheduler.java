@@ -0,0 +1,168 @@
+package com.transfer;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bandwidth limits and priorities for concurrent transfers, applied by throttling the transfer
+ * streams with token buckets. The global bucket caps all transfers of one service together, the
+ * per-transfer bucket caps each stream on its own. Files up to the small-file threshold are
+ * INTERACTIVE, larger ones BULK; while an interactive transfer is waiting for global bandwidth, bulk
+ * transfers stop taking tokens, so small time-critical files go ahead at the next chunk boundary.
+ * {@link SftpChannelPool} applies the same priority to channels, keeping one back from bulk transfers.
+ */
+public class TransferScheduler {
+    public enum Priority { INTERACTIVE, BULK }
+
+    // Tokens are taken per chunk, which is also how quickly a bulk transfer yields
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final TokenBucket global;
+    private final long transferBytesPerSecond;
+    private final long smallFileBytes;
+
+    public TransferScheduler(long globalBytesPerSecond, long transferBytesPerSecond, long smallFileBytes) {
+        this.global = globalBytesPerSecond > 0 ? new TokenBucket(globalBytesPerSecond) : null;
+        this.transferBytesPerSecond = transferBytesPerSecond;
+        this.smallFileBytes = smallFileBytes;
+    }
+
+    public boolean isEnabled() {
+        return global != null || transferBytesPerSecond > 0;
+    }
+
+    public Priority priorityOf(long size) {
+        return size >= 0 && size <= smallFileBytes ? Priority.INTERACTIVE : Priority.BULK;
+    }
+
+    // Throttles a stream carrying a file of the given size; unchanged when no limit is configured
+    public OutputStream throttle(OutputStream out, long size) {
+        if (!isEnabled()) {
+            return out;
+        }
+        Throttle throttle = new Throttle(priorityOf(size));
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                throttle.acquire(1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] buffer, int off, int len) throws IOException {
+                while (len > 0) {
+                    int chunk = Math.min(len, CHUNK_BYTES);
+                    throttle.acquire(chunk);
+                    out.write(buffer, off, chunk);
+                    off += chunk;
+                    len -= chunk;
+                }
+            }
+        };
+    }
+
+    public InputStream throttle(InputStream in, long size) {
+        if (!isEnabled()) {
+            return in;
+        }
+        Throttle throttle = new Throttle(priorityOf(size));
+        return new FilterInputStream(in) {
+            // Charged after the read, so short reads and end of stream only pay for what arrived
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    throttle.acquire(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int read = in.read(buffer, off, Math.min(len, CHUNK_BYTES));
+                if (read > 0) {
+                    throttle.acquire(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private final class Throttle {
+        private final Priority priority;
+        private final TokenBucket own = transferBytesPerSecond > 0 ? new TokenBucket(transferBytesPerSecond) : null;
+
+        Throttle(Priority priority) {
+            this.priority = priority;
+        }
+
+        void acquire(int bytes) throws IOException {
+            try {
+                if (own != null) {
+                    own.acquire(bytes, Priority.INTERACTIVE);
+                }
+                if (global != null) {
+                    global.acquire(bytes, priority);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for transfer bandwidth");
+            }
+        }
+    }
+
+    /**
+     * Refills at the configured rate up to a tenth of a second of burst. A take larger than the
+     * balance drives it negative, so the debt is paid by whoever takes next.
+     */
+    static final class TokenBucket {
+        private final double bytesPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private int interactiveWaiting;
+
+        TokenBucket(long bytesPerSecond) {
+            this.bytesPerNano = bytesPerSecond / 1e9;
+            this.capacity = Math.max(bytesPerSecond / 10.0, CHUNK_BYTES);
+            this.tokens = capacity;
+        }
+
+        synchronized void acquire(int bytes, Priority priority) throws InterruptedException {
+            boolean waiting = false;
+            try {
+                while (true) {
+                    refill();
+                    boolean yielding = priority == Priority.BULK && interactiveWaiting > 0;
+                    if (!yielding && tokens > 0) {
+                        tokens -= bytes;
+                        return;
+                    }
+                    if (priority == Priority.INTERACTIVE && !waiting) {
+                        interactiveWaiting++;
+                        waiting = true;
+                    }
+                    // A yielding transfer is woken by notifyAll once the interactive one got its tokens
+                    long waitNanos = yielding ? TimeUnit.MILLISECONDS.toNanos(50) : (long) (-tokens / bytesPerNano) + 1;
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.max(TimeUnit.MILLISECONDS.toNanos(1), waitNanos));
+                }
+            } finally {
+                if (waiting) {
+                    interactiveWaiting--;
+                    notifyAll();
+                }
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * bytesPerNano);
+            refilledAt = now;
+        }
+    }
+}
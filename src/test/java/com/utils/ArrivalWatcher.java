@@ -0,0 +1,75 @@
+package com.utils;
+
+import com.config.EnvProfile;
+import com.db.DbNotificationListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for something to show up (a database row, a remote file) without a fixed-interval busy loop.
+ * The condition is re-checked with exponential backoff; when a PostgreSQL notification channel is
+ * given, a NOTIFY on it triggers an immediate re-check and the backoff only acts as a safety net.
+ * The condition always runs on the calling thread, so it sees that scenario's own transaction.
+ */
+public final class ArrivalWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(ArrivalWatcher.class);
+
+    private static final long INITIAL_INTERVAL_MILLIS = EnvProfile.getLong("WATCH_POLL_INITIAL_MS", 100);
+    private static final long MAX_INTERVAL_MILLIS = EnvProfile.getLong("WATCH_POLL_MAX_MS", 2000);
+    // With notifications the poll only covers a missed NOTIFY, so it can back off much further
+    private static final long MAX_NOTIFY_INTERVAL_MILLIS = EnvProfile.getLong("WATCH_NOTIFY_POLL_MAX_MS", 10000);
+
+    private ArrivalWatcher() {
+    }
+
+    public static boolean await(BooleanSupplier condition, long timeoutMillis) {
+        return await(condition, timeoutMillis, null);
+    }
+
+    public static boolean await(BooleanSupplier condition, long timeoutMillis, String notifyChannel) {
+        return await(condition, timeoutMillis, INITIAL_INTERVAL_MILLIS, notifyChannel);
+    }
+
+    public static boolean await(BooleanSupplier condition, long timeoutMillis, long initialIntervalMillis,
+                                String notifyChannel) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long interval = Math.max(1, initialIntervalMillis);
+        int checks = 0;
+
+        DbNotificationListener.Subscription subscription = notifyChannel != null
+                ? DbNotificationListener.subscribe(notifyChannel) : null;
+        try {
+            while (true) {
+                checks++;
+                if (condition.getAsBoolean()) {
+                    logger.debug("Condition met after {} checks", checks);
+                    return true;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    logger.info("Condition not met within {} ms ({} checks)", timeoutMillis, checks);
+                    return false;
+                }
+
+                long wait = Math.min(interval, remaining);
+                boolean live = subscription != null && subscription.isLive();
+                if (live) {
+                    subscription.await(wait);
+                } else {
+                    Thread.sleep(wait);
+                }
+                interval = Math.min(interval * 2, live ? MAX_NOTIFY_INTERVAL_MILLIS : MAX_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (subscription != null) {
+                subscription.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.utils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lets readers take plain and gzip-compressed feeds alike by sniffing the gzip magic bytes,
+ * so a renamed or extension-less .gz file is still decompressed.
+ */
+public final class GzipStreams {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private GzipStreams() {
+    }
+
+    public static InputStream decompressIfGzipped(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        return buffered;
+    }
+}
@@ -5,7 +5,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class QueryLoader {
     private static final Logger logger = LoggerFactory.getLogger(QueryLoader.class);
@@ -32,5 +35,25 @@ public class QueryLoader {
         }
         return query;
     }
+
+    // Statement keys only - attribute entries such as "<KEY>.tables" are skipped
+    public static Set<String> getQueryKeys() {
+        return properties.stringPropertyNames().stream()
+                .filter(key -> !key.contains("."))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Tables declared for a query via "<KEY>.tables=a,b" - empty when nothing is declared
+    public static Set<String> getTables(String key) {
+        var tables = properties.getProperty(key + ".tables");
+        if (tables == null || tables.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(tables.split(","))
+                .map(String::trim)
+                .filter(table -> !table.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
 }
 
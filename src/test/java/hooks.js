@@ -5,8 +5,9 @@ function beforeScenario(scenario) {
     karate.log('BEFORE SCENARIO: ' + scenario.name);
     karate.log('************************************************************');
     
+    // Only resources the scenario is tagged with (@db, @sftp) are opened up front
     var SetupHelper = Java.type('com.test.TestSetupHelper');
-    SetupHelper.setupBeforeScenario();
+    SetupHelper.setupBeforeScenario(karate.tags);
   }
   
   function afterScenario(scenario) {
@@ -1,10 +1,5 @@
 function retryUntilTrue(condition, timeout, interval) {
-    var start = new Date().getTime();
-    while (new Date().getTime() - start < timeout) {
-        if (condition()) {
-            return true;
-        }
-        karate.sleep(interval);
-    }
-    return false;
+    // Backs off exponentially from the given interval instead of polling at a fixed rate
+    var ArrivalWatcher = Java.type('com.utils.ArrivalWatcher');
+    return ArrivalWatcher.await(condition, timeout, interval, null);
 }
\ No newline at end of file